@@ -0,0 +1,64 @@
+package com.example.docsigning.benchmarks;
+
+import com.example.docsigning.TestCertificates;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.service.CertificateArchiveService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CertificateArchiveBenchmark {
+
+    private final CertificateArchiveService archiveService = new CertificateArchiveService();
+
+    private byte[] zipBytes;
+
+    /**
+     * Mirrors a DigiCert download: certificate and key plus unrelated files that ingest has to skip.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("benchmark");
+        byte[] filler = new byte[256 * 1024];
+        new Random(7).nextBytes(filler);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(out)) {
+            addEntry(zos, "README.txt", filler);
+            addEntry(zos, "certificate.crt", certificates.certificatePem());
+            addEntry(zos, "private.key", certificates.privateKeyPem());
+            addEntry(zos, "install-guide.pdf", filler);
+        }
+        zipBytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public CertificateBundle fromZip() throws Exception {
+        return archiveService.fromZip(zipBytes);
+    }
+
+    private static void addEntry(ZipOutputStream zos, String name, byte[] content) throws Exception {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content);
+        zos.closeEntry();
+    }
+}
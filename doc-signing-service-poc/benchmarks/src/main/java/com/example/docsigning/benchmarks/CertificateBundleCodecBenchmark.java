@@ -0,0 +1,67 @@
+package com.example.docsigning.benchmarks;
+
+import com.example.docsigning.TestCertificates;
+import com.example.docsigning.cache.CertificateBundleCodec;
+import com.example.docsigning.model.CertificateBundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CertificateBundleCodecBenchmark {
+
+    private final CertificateBundleCodec binaryCodec = new CertificateBundleCodec(true, false);
+    private final CertificateBundleCodec compressedCodec = new CertificateBundleCodec(true, true);
+
+    private CertificateBundle bundle;
+    private String legacyEncoded;
+    private byte[] binaryEncoded;
+    private byte[] compressedEncoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        bundle = TestCertificates.rsa("benchmark").bundle();
+        legacyEncoded = bundle.serialize();
+        binaryEncoded = binaryCodec.encode(bundle);
+        compressedEncoded = compressedCodec.encode(bundle);
+    }
+
+    @Benchmark
+    public String legacyEncode() {
+        return bundle.serialize();
+    }
+
+    @Benchmark
+    public CertificateBundle legacyDecode() {
+        return CertificateBundle.deserialize(legacyEncoded);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binaryCodec.encode(bundle);
+    }
+
+    @Benchmark
+    public CertificateBundle binaryDecode() {
+        return binaryCodec.decode(binaryEncoded);
+    }
+
+    @Benchmark
+    public CertificateBundle compressedDecode() {
+        return compressedCodec.decode(compressedEncoded);
+    }
+}
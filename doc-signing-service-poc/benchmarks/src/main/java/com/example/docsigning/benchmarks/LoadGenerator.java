@@ -0,0 +1,182 @@
+package com.example.docsigning.benchmarks;
+
+import com.example.docsigning.FakeDigiCertServer;
+import com.example.docsigning.InMemoryCertificateCache;
+import com.example.docsigning.StaticApiKeyProvider;
+import com.example.docsigning.TestCertificates;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.digicert.DigiCertHttpTransport;
+import com.example.docsigning.digicert.HttpEndpointPolicy;
+import com.example.docsigning.metrics.LatencyHistogram;
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for the full {@code signDocument} path: {@code load.concurrency} threads sign
+ * back to back through {@code load.nodes} orchestrators that share one in-memory cache (standing in for Redis) and
+ * one {@link FakeDigiCertServer}, so DigiCert, SSM and Redis are all in process.
+ *
+ * <p>Scenarios ({@code load.scenario}):
+ * <ul>
+ *     <li>{@code steady}: the certificate stays cached for the whole run; measures signing throughput.</li>
+ *     <li>{@code expiry-storm}: the cache TTL is {@code load.cacheTtlSeconds} (default 10) and no background refresh
+ *     runs, so every node's copy expires at the same instant while under load. The report shows how many DigiCert
+ *     calls and refresh leases each storm cost and the latency the requests caught in it paid.</li>
+ * </ul>
+ *
+ * <pre>
+ * java -Dload.scenario=expiry-storm -Dload.nodes=4 -Dload.concurrency=64 \
+ *      -cp benchmarks/target/benchmarks.jar com.example.docsigning.benchmarks.LoadGenerator
+ * </pre>
+ *
+ * Other settings: {@code load.durationSeconds} (30), {@code load.payloadBytes} (4096), {@code load.keyType}
+ * ({@code rsa} or {@code ec}), {@code load.digicertLatencyMillis} (50), {@code load.digicertFailureRate} (0).
+ * Percentiles come from {@link LatencyHistogram} and carry its bucket resolution.
+ */
+public final class LoadGenerator {
+
+    private static final int LISTED_CERTIFICATES = 250;
+    private static final long WARMUP_MILLIS = 3_000L;
+
+    private final int concurrency = Integer.getInteger("load.concurrency", 32);
+    private final int nodes = Integer.getInteger("load.nodes", 1);
+    private final long durationMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger("load.durationSeconds", 30));
+    private final int payloadBytes = Integer.getInteger("load.payloadBytes", 4096);
+    private final String scenario = System.getProperty("load.scenario", "steady");
+    private final int cacheTtlSeconds = Integer.getInteger("load.cacheTtlSeconds",
+            "expiry-storm".equals(scenario) ? 10 : 3600);
+    private final String keyType = System.getProperty("load.keyType", "rsa");
+    private final long digicertLatencyMillis = Long.getLong("load.digicertLatencyMillis", 50L);
+    private final double digicertFailureRate = Double.parseDouble(System.getProperty("load.digicertFailureRate", "0"));
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAccumulator[] maxPerSecond;
+
+    private LoadGenerator() {
+        maxPerSecond = new LongAccumulator[(int) TimeUnit.MILLISECONDS.toSeconds(durationMillis) + 1];
+        for (int i = 0; i < maxPerSecond.length; i++) {
+            maxPerSecond[i] = new LongAccumulator(Math::max, 0L);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator().run();
+    }
+
+    private void run() throws Exception {
+        TestCertificates certificates = "ec".equals(keyType) ? TestCertificates.ec("load") : TestCertificates.rsa("load");
+        List<DocumentSigningOrchestrator> orchestrators = new ArrayList<>();
+        try (FakeDigiCertServer digicert = new FakeDigiCertServer(certificates, LISTED_CERTIFICATES);
+             InMemoryCertificateCache cache = new InMemoryCertificateCache(cacheTtlSeconds, 5_000L)) {
+            digicert.setLatencyMillis(digicertLatencyMillis);
+            digicert.setFailureRate(digicertFailureRate);
+            for (int i = 0; i < nodes; i++) {
+                orchestrators.add(new DocumentSigningOrchestrator(
+                        cache,
+                        client(digicert.getBaseUrl()),
+                        new CertificateArchiveService(),
+                        new CertificateBasedSigner()));
+            }
+
+            byte[] payload = new byte[payloadBytes];
+            new Random(11).nextBytes(payload);
+            for (DocumentSigningOrchestrator orchestrator : orchestrators) {
+                orchestrator.signDocument(payload);
+            }
+            drive(orchestrators, payload, WARMUP_MILLIS, false);
+
+            long listBefore = digicert.getListRequests();
+            long downloadsBefore = digicert.getDownloadRequests();
+            long leasesBefore = cache.getLeasesGranted();
+            long start = System.nanoTime();
+            drive(orchestrators, payload, durationMillis, true);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report(seconds, digicert.getListRequests() - listBefore, digicert.getDownloadRequests() - downloadsBefore,
+                    cache.getLeasesGranted() - leasesBefore);
+        } finally {
+            for (DocumentSigningOrchestrator orchestrator : orchestrators) {
+                orchestrator.close();
+            }
+        }
+    }
+
+    private void drive(List<DocumentSigningOrchestrator> orchestrators, byte[] payload, long millis, boolean measure)
+            throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(millis);
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            DocumentSigningOrchestrator orchestrator = orchestrators.get(i % orchestrators.size());
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long requestStart = System.nanoTime();
+                    try {
+                        orchestrator.signDocument(payload);
+                        if (measure) {
+                            completed.increment();
+                        }
+                    } catch (Exception e) {
+                        if (measure) {
+                            failed.increment();
+                        }
+                    }
+                    if (measure) {
+                        long elapsed = System.nanoTime() - requestStart;
+                        latency.record(elapsed);
+                        int second = (int) TimeUnit.NANOSECONDS.toSeconds(requestStart - startNanos);
+                        maxPerSecond[Math.min(second, maxPerSecond.length - 1)].accumulate(elapsed);
+                    }
+                }
+            }, "load-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void report(double seconds, long listCalls, long downloadCalls, long leases) {
+        System.out.printf(Locale.ROOT, "scenario=%s nodes=%d concurrency=%d payload=%d bytes key=%s cacheTtl=%ds%n",
+                scenario, nodes, concurrency, payloadBytes, keyType, cacheTtlSeconds);
+        System.out.printf(Locale.ROOT, "requests=%d failed=%d throughput=%.1f/s%n",
+                completed.sum(), failed.sum(), completed.sum() / seconds);
+        System.out.printf(Locale.ROOT, "latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                millis(latency.getPercentileNanos(50)), millis(latency.getPercentileNanos(99)),
+                millis(latency.getPercentileNanos(99.9)), millis(latency.getMaxNanos()));
+        System.out.printf(Locale.ROOT, "digicert list=%d download=%d refreshLeases=%d%n", listCalls, downloadCalls, leases);
+        StringBuilder perSecond = new StringBuilder("max latency ms per second:");
+        for (LongAccumulator max : maxPerSecond) {
+            perSecond.append(String.format(Locale.ROOT, " %.1f", millis(max.get())));
+        }
+        System.out.println(perSecond);
+    }
+
+    private static DigiCertApiClient client(String baseUrl) {
+        return new DigiCertApiClient(
+                baseUrl,
+                new StaticApiKeyProvider("load-test"),
+                new DigiCertHttpTransport(new CircuitBreaker("digicert", 5, 5_000L), 50L, 1_000L),
+                new HttpEndpointPolicy(1_000, 5_000, 3),
+                new HttpEndpointPolicy(1_000, 5_000, 3),
+                100);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.docsigning.benchmarks;
+
+import com.example.docsigning.TestCertificates;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.MerkleSignedDocument;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of signing a whole batch: one signature per document versus one signature over the batch's Merkle root.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MerkleBatchBenchmark {
+
+    @Param({"16", "256"})
+    public int batchSize;
+
+    @Param({"4096"})
+    public int payloadSize;
+
+    private CertificateBasedSigner signer;
+    private CertificateBundle bundle;
+    private List<byte[]> documents;
+
+    @Setup
+    public void setUp() throws Exception {
+        bundle = TestCertificates.rsa("benchmark").bundle();
+        signer = new CertificateBasedSigner();
+        Random random = new Random(13);
+        documents = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            byte[] document = new byte[payloadSize];
+            random.nextBytes(document);
+            documents.add(document);
+        }
+    }
+
+    @Benchmark
+    public List<SignedDocument> signEach() throws Exception {
+        List<SignedDocument> signed = new ArrayList<>(documents.size());
+        for (byte[] document : documents) {
+            signed.add(signer.sign(document, bundle));
+        }
+        return signed;
+    }
+
+    @Benchmark
+    public List<MerkleSignedDocument> signMerkleRoot() throws Exception {
+        return signer.signMerkleBatch(documents, bundle);
+    }
+}
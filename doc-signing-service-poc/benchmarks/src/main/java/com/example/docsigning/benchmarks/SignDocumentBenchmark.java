@@ -0,0 +1,73 @@
+package com.example.docsigning.benchmarks;
+
+import com.example.docsigning.InMemoryCertificateCache;
+import com.example.docsigning.TestCertificates;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@code signDocument} path against an in-memory cache; DigiCert is never reached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignDocumentBenchmark {
+
+    @Param({"1024", "65536"})
+    public int payloadSize;
+
+    private DocumentSigningOrchestrator orchestrator;
+    private InMemoryCertificateCache cache;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        cache = new InMemoryCertificateCache(TestCertificates.rsa("benchmark").bundle(), 3600);
+        orchestrator = new DocumentSigningOrchestrator(
+                cache,
+                new DigiCertApiClient("http://127.0.0.1:9", "unused", 1, 1),
+                new CertificateArchiveService(),
+                new CertificateBasedSigner());
+        payload = new byte[payloadSize];
+        new Random(7).nextBytes(payload);
+    }
+
+    @TearDown
+    public void tearDown() {
+        orchestrator.close();
+        cache.close();
+    }
+
+    @Benchmark
+    public SignedDocument signDocument() throws Exception {
+        return orchestrator.signDocument(payload);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public SignedDocument signDocumentContended() throws Exception {
+        return orchestrator.signDocument(payload);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.docsigning.benchmarks;
+
+import com.example.docsigning.TestCertificates;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignerBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    /** {@code rsa} (RSA-2048, SHA256withRSA) or {@code ec} (P-256, SHA256withECDSA). */
+    @Param({"rsa", "ec"})
+    public String keyType;
+
+    private CertificateBasedSigner signer;
+    private CertificateBundle bundle;
+    private byte[] payload;
+    private byte[] payloadDigest;
+
+    @Setup
+    public void setUp() throws Exception {
+        bundle = ("ec".equals(keyType) ? TestCertificates.ec("benchmark") : TestCertificates.rsa("benchmark")).bundle();
+        signer = new CertificateBasedSigner();
+        payload = new byte[payloadSize];
+        new Random(7).nextBytes(payload);
+        payloadDigest = MessageDigest.getInstance("SHA-256").digest(payload);
+    }
+
+    @Benchmark
+    public SignedDocument sign() throws Exception {
+        return signer.sign(payload, bundle);
+    }
+
+    @Benchmark
+    public SignedDocument signDigest() throws Exception {
+        return signer.signDigest(payloadDigest, bundle);
+    }
+}
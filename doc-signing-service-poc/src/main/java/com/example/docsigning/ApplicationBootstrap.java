@@ -0,0 +1,194 @@
+package com.example.docsigning;
+
+import com.example.docsigning.aws.ApiKeyProvider;
+import com.example.docsigning.cache.CertificateCache;
+import com.example.docsigning.crypto.SigningEngine;
+import com.example.docsigning.crypto.SigningEngines;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings the service up: reads the API key, fills the Redis pool and loads the default certificate concurrently,
+ * then signs and verifies synthetic payloads so JCA providers, the certificate parser and the JIT-compiled signing
+ * path are warm before the first real request. {@link #isReady()} only turns true once all of that has succeeded.
+ * When a certificate snapshot could be restored from disk, readiness only waits for the warm-up and the other
+ * phases complete in the background.
+ */
+public class ApplicationBootstrap {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationBootstrap.class);
+    private static final int WARMUP_PAYLOAD_SIZES = 8;
+    private static final int WARMUP_PAYLOAD_STEP_BYTES = 512;
+
+    private final ApiKeyProvider apiKeyProvider;
+    private final CertificateCache redisCache;
+    private final DocumentSigningOrchestrator orchestrator;
+    private final int redisPrewarmConnections;
+    private final int warmupIterations;
+    private final Map<String, Long> timings = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public ApplicationBootstrap(ApiKeyProvider apiKeyProvider,
+                                CertificateCache redisCache,
+                                DocumentSigningOrchestrator orchestrator,
+                                int redisPrewarmConnections,
+                                int warmupIterations) {
+        this.apiKeyProvider = apiKeyProvider;
+        this.redisCache = redisCache;
+        this.orchestrator = orchestrator;
+        this.redisPrewarmConnections = redisPrewarmConnections;
+        this.warmupIterations = warmupIterations;
+    }
+
+    /**
+     * Runs every startup phase and returns how long each took, in milliseconds, in the order they finished.
+     */
+    public Map<String, Long> run() throws Exception {
+        long start = System.nanoTime();
+        boolean restored = timed("snapshot", () -> orchestrator.restoreSnapshot(CertificateSelector.DEFAULT));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "bootstrap-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?> phases = CompletableFuture.allOf(
+                    timedAsync("ssm", () -> apiKeyProvider.getApiKey(), executor),
+                    timedAsync("redis_pool", () -> {
+                        redisCache.prewarm(redisPrewarmConnections);
+                        return null;
+                    }, executor),
+                    timedAsync("certificate", () -> orchestrator.refreshCertificate(CertificateSelector.DEFAULT, 0), executor)
+            );
+            if (restored) {
+                // The snapshot is enough to sign with; the network phases finish in the background.
+                phases.whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        LOGGER.warn("Startup phase failed after restoring the certificate snapshot; "
+                                + "signing continues with the snapshot until the refresher succeeds", e);
+                    }
+                });
+            } else {
+                phases.join();
+            }
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } finally {
+            executor.shutdown();
+        }
+
+        timed("warmup", () -> {
+            warmUp();
+            return null;
+        });
+        long totalMillis = (System.nanoTime() - start) / 1_000_000L;
+        timings.put("total", totalMillis);
+        SigningMetrics.shared().gauge("startup.total_millis", () -> totalMillis);
+        ready = true;
+
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        timings.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEachOrdered(timing -> ordered.put(timing.getKey(), timing.getValue()));
+        LOGGER.info("Service ready; startup timings (ms): {}", ordered);
+        return ordered;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Signs payloads of a few sizes with the orchestrator's key material and engines and verifies every signature
+     * against the certificate with the matching engine, which also proves the loaded key pair is usable before traffic
+     * arrives. The signature cache is bypassed: it would turn every round after the first few into a lookup and store
+     * the synthetic signatures locally and in Redis.
+     */
+    private void warmUp() throws Exception {
+        byte[][] payloads = new byte[WARMUP_PAYLOAD_SIZES][];
+        Random random = new Random(0);
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = new byte[(i + 1) * WARMUP_PAYLOAD_STEP_BYTES];
+            random.nextBytes(payloads[i]);
+        }
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        CertificateBasedSigner signer = orchestrator.getSigner().withoutSignatureCache();
+        SigningEngines engines = signer.getEngines();
+        CertificateBundle bundle = orchestrator.resolveBundle(CertificateSelector.DEFAULT);
+        Signature verifier = null;
+        boolean digestSigning = true;
+
+        for (int i = 0; i < warmupIterations; i++) {
+            byte[] payload = payloads[i % payloads.length];
+            SignedDocument signed = signer.sign(payload, bundle);
+            if (digestSigning) {
+                try {
+                    signer.signDigest(sha256.digest(payload), bundle);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.info("Skipping digest signing during warm-up: {}", e.getMessage());
+                    digestSigning = false;
+                }
+            }
+            SigningEngine engine = engines.byName(signed.getSignatureType());
+            if (engine == null) {
+                continue;
+            }
+            if (verifier == null) {
+                X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509")
+                        .generateCertificate(new ByteArrayInputStream(signed.getCertificate()));
+                verifier = engine.verifier(certificate.getPublicKey());
+            }
+            verifier.update(payload);
+            if (!verifier.verify(signed.getSignature())) {
+                throw new IllegalStateException("Warm-up signature did not verify against the signing certificate");
+            }
+        }
+        LOGGER.info("Warm-up signed {} synthetic payloads of up to {} bytes", warmupIterations,
+                Arrays.stream(payloads).mapToInt(p -> p.length).max().orElse(0));
+    }
+
+    private <T> CompletableFuture<T> timedAsync(String phase, Callable<T> step, ExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timed(phase, step);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private <T> T timed(String phase, Callable<T> step) throws Exception {
+        long start = System.nanoTime();
+        T result = step.call();
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        timings.put(phase, millis);
+        SigningMetrics.shared().gauge("startup." + phase + "_millis", () -> millis);
+        LOGGER.info("Startup phase {} finished in {} ms", phase, millis);
+        return result;
+    }
+}
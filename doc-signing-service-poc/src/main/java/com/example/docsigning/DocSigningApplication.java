@@ -1,52 +1,181 @@
 package com.example.docsigning;
 
+import com.example.docsigning.aws.CachingApiKeyProvider;
 import com.example.docsigning.aws.SsmApiKeyProvider;
+import com.example.docsigning.cache.CertificateBundleCodec;
+import com.example.docsigning.cache.CertificateCache;
+import com.example.docsigning.cache.CertificateSnapshotStore;
+import com.example.docsigning.cache.KeyMaterialCache;
 import com.example.docsigning.cache.RedisCertificateCache;
+import com.example.docsigning.cache.RedisPoolSettings;
+import com.example.docsigning.cache.ResilientCertificateCache;
+import com.example.docsigning.cache.SignatureCache;
 import com.example.docsigning.config.AppConfig;
+import com.example.docsigning.crypto.SigningEngines;
 import com.example.docsigning.digicert.DigiCertApiClient;
-import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.digicert.DigiCertHttpTransport;
+import com.example.docsigning.digicert.HttpEndpointPolicy;
+import com.example.docsigning.http.SigningHttpServer;
+import com.example.docsigning.metrics.MetricsReporter;
+import com.example.docsigning.metrics.PeriodicMetricsReporting;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.metrics.SigningMetricsMBean;
+import com.example.docsigning.resilience.CircuitBreaker;
 import com.example.docsigning.service.CertificateArchiveService;
 import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.CertificateRefresher;
 import com.example.docsigning.service.DocumentSigningOrchestrator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class DocSigningApplication {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DocSigningApplication.class);
+    private static final long SHUTDOWN_GRACE_SECONDS = 10;
 
     public static void main(String[] args) throws Exception {
         AppConfig config = new AppConfig();
-        SsmApiKeyProvider keyProvider = new SsmApiKeyProvider(config.getApiKeySsmParamName());
-        String apiKey = keyProvider.getApiKey();
+        SigningMetricsMBean.register(SigningMetrics.shared());
+        MetricsReporter reporter = (MetricsReporter) Class.forName(config.getMetricsReporterClass()).getConstructor().newInstance();
+        CachingApiKeyProvider keyProvider = new CachingApiKeyProvider(
+                new SsmApiKeyProvider(config.getApiKeySsmParamName()),
+                config.getApiKeyCacheTtlMillis());
+        keyProvider.start();
 
+        // Sizes the JDK keep-alive pool used by DigiCertHttpTransport; must be set before the first connection.
+        System.setProperty("http.maxConnections", String.valueOf(config.getDigicertMaxConnections()));
         DigiCertApiClient digicertApiClient = new DigiCertApiClient(
                 config.getDigicertBaseUrl(),
-                apiKey,
-                config.getHttpConnectTimeoutMillis(),
-                config.getHttpReadTimeoutMillis()
+                keyProvider,
+                new DigiCertHttpTransport(
+                        new CircuitBreaker("digicert", config.getDigicertCircuitFailureThreshold(), config.getDigicertCircuitOpenMillis()),
+                        200L,
+                        5_000L),
+                new HttpEndpointPolicy(config.getHttpConnectTimeoutMillis(), config.getDigicertListTimeoutMillis(), config.getDigicertMaxAttempts()),
+                new HttpEndpointPolicy(config.getHttpConnectTimeoutMillis(), config.getDigicertDownloadTimeoutMillis(), config.getDigicertMaxAttempts()),
+                config.getDigicertListPageSize()
         );
 
-        try (RedisCertificateCache redisCache = new RedisCertificateCache(
+        RedisPoolSettings redisPoolSettings = new RedisPoolSettings(
                 config.getRedisEndpoint(),
                 config.getRedisPort(),
-                config.getRedisCacheKey(),
-                config.getRedisTtlSeconds())) {
+                config.getRedisPoolMaxTotal(),
+                config.getRedisPoolMinIdle(),
+                config.getRedisConnectTimeoutMillis(),
+                config.getRedisSocketTimeoutMillis(),
+                config.getRedisPoolMaxWaitMillis());
 
-            DocumentSigningOrchestrator orchestrator = new DocumentSigningOrchestrator(
+        // Redis failures degrade to the in-process copy instead of failing requests; writes are asynchronous.
+        try (CertificateCache redisCache = new ResilientCertificateCache(
+                new RedisCertificateCache(
+                        redisPoolSettings,
+                        config.getRedisCacheKey(),
+                        config.getRedisTtlSeconds(),
+                        new CertificateBundleCodec(config.isRedisBinaryFormat(), config.isRedisCompressionEnabled()),
+                        config.getCertificateRefreshLeaseMillis(),
+                        config.getRedisClientSideCacheMaxAgeMillis()),
+                new CircuitBreaker("redis", config.getRedisCircuitFailureThreshold(), config.getRedisCircuitOpenMillis()),
+                config.getRedisFallbackTtlMillis(),
+                config.getRedisWriteQueueCapacity());
+             DocumentSigningOrchestrator orchestrator = new DocumentSigningOrchestrator(
+                     redisCache,
+                     digicertApiClient,
+                     new CertificateArchiveService(),
+                     new CertificateBasedSigner(
+                             new KeyMaterialCache(),
+                             new SigningEngines(config.getSigningProvider(), config.getSigningRsaEngine()),
+                             signatureCache(config, redisCache)),
+                     config.getCertificateFetchWaitTimeoutMillis(),
+                     config.getSigningPoolSize(),
+                     config.getSigningQueueCapacity(),
+                     config.getCertificateIoPoolSize(),
+                     snapshotStore(config))) {
+
+            orchestrator.listenForRotations();
+            ApplicationBootstrap bootstrap = new ApplicationBootstrap(
+                    keyProvider,
                     redisCache,
-                    digicertApiClient,
-                    new CertificateArchiveService(),
-                    new CertificateBasedSigner()
-            );
-
-            byte[] samplePayload = "Sample XML/PDF/XLS bytes".getBytes(StandardCharsets.UTF_8);
-            SignedDocument signedDocument = orchestrator.signDocument(samplePayload);
-            LOGGER.info("Signature type: {}", signedDocument.getSignatureType());
-            LOGGER.info("Signature payload (base64): {}", Base64.getEncoder().encodeToString(signedDocument.getSignature()));
+                    orchestrator,
+                    config.getRedisPrewarmConnections(),
+                    config.getWarmupIterations());
+
+            try (SigningHttpServer httpServer = new SigningHttpServer(
+                    orchestrator,
+                    bootstrap::isReady,
+                    config.getHttpPort(),
+                    config.getHttpWorkerThreads(),
+                    config.getHttpQueueCapacity(),
+                    config.getHttpMaxBodyBytes(),
+                    config.getHttpRetryAfterSeconds(),
+                    config.getHttpDefaultCountry())) {
+                // Started first so /health and /ready answer (503) while the bootstrap runs.
+                httpServer.start();
+                bootstrap.run();
+
+                PeriodicMetricsReporting metricsReporting = new PeriodicMetricsReporting(
+                        SigningMetrics.shared(),
+                        reporter,
+                        config.getMetricsReportIntervalSeconds());
+                try (CertificateRefresher refresher = new CertificateRefresher(
+                        orchestrator,
+                        config.getRedisTtlSeconds(),
+                        config.getCertificateRefreshAheadFraction())) {
+                    refresher.start();
+                    awaitShutdown();
+                    reporter.report(SigningMetrics.shared().snapshot());
+                } finally {
+                    metricsReporting.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Signature cache when either tier is configured, otherwise {@code null} so every request is signed.
+     */
+    private static SignatureCache signatureCache(AppConfig config, CertificateCache redisCache) {
+        if (config.getSignatureCacheMaxEntries() <= 0 && config.getSignatureCacheRedisTtlSeconds() <= 0) {
+            return null;
         }
+        return new SignatureCache(config.getSignatureCacheMaxEntries(), redisCache,
+                config.getSignatureCacheRedisTtlSeconds());
+    }
+
+    /**
+     * Certificate snapshot store when {@code CERTIFICATE_SNAPSHOT_DIR} is set, otherwise {@code null}.
+     */
+    private static CertificateSnapshotStore snapshotStore(AppConfig config) {
+        if (config.getCertificateSnapshotDir() == null) {
+            return null;
+        }
+        if (config.getCertificateSnapshotKey() == null) {
+            throw new IllegalStateException("CERTIFICATE_SNAPSHOT_DIR is set but CERTIFICATE_SNAPSHOT_KEY is not");
+        }
+        return new CertificateSnapshotStore(Paths.get(config.getCertificateSnapshotDir()),
+                Base64.getDecoder().decode(config.getCertificateSnapshotKey().trim()));
+    }
+
+    /**
+     * Blocks until the JVM is asked to stop, then returns so the resources above are closed in order; the
+     * shutdown hook waits for that before letting the JVM exit.
+     */
+    private static void awaitShutdown() throws InterruptedException {
+        CountDownLatch stopRequested = new CountDownLatch(1);
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LOGGER.info("Shutdown requested");
+            stopRequested.countDown();
+            try {
+                mainThread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_GRACE_SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "shutdown"));
+        stopRequested.await();
     }
 }
@@ -0,0 +1,10 @@
+package com.example.docsigning.aws;
+
+/**
+ * Source of the DigiCert API key. Called on every DigiCert request, so implementations used on the request
+ * path must answer from memory.
+ */
+public interface ApiKeyProvider {
+
+    String getApiKey();
+}
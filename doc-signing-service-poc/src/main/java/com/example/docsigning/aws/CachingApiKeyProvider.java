@@ -0,0 +1,111 @@
+package com.example.docsigning.aws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the API key in memory and reloads it from the delegate in the background every {@code ttlMillis}.
+ * Callers always get the last good key; only the very first call, before any load has completed, waits for
+ * the delegate. A failed or slow reload keeps serving the previous key, so rotating the key in SSM takes
+ * effect within one TTL without a restart.
+ */
+public class CachingApiKeyProvider implements ApiKeyProvider, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingApiKeyProvider.class);
+
+    private final ApiKeyProvider delegate;
+    private final long ttlMillis;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Object loadLock = new Object();
+    private volatile String apiKey;
+    private volatile long loadedAtMillis;
+
+    public CachingApiKeyProvider(ApiKeyProvider delegate, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive");
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-key-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts loading the key right away and then every TTL, without blocking the caller.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String getApiKey() {
+        String current = apiKey;
+        if (current == null) {
+            synchronized (loadLock) {
+                current = apiKey;
+                if (current == null) {
+                    current = load();
+                }
+            }
+        } else if (System.currentTimeMillis() - loadedAtMillis >= ttlMillis) {
+            // The scheduled reload is late or failing; nudge it without making this caller wait.
+            triggerRefresh();
+        }
+        return current;
+    }
+
+    private void triggerRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    try {
+                        refreshQuietly();
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            synchronized (loadLock) {
+                load();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("DigiCert API key reload failed; keeping the key loaded {} ms ago",
+                    System.currentTimeMillis() - loadedAtMillis, e);
+        }
+    }
+
+    private String load() {
+        String loaded = delegate.getApiKey();
+        if (loaded == null || loaded.isEmpty()) {
+            throw new IllegalStateException("API key provider returned an empty key");
+        }
+        if (apiKey != null && !apiKey.equals(loaded)) {
+            LOGGER.info("DigiCert API key rotated");
+        }
+        apiKey = loaded;
+        loadedAtMillis = System.currentTimeMillis();
+        return loaded;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
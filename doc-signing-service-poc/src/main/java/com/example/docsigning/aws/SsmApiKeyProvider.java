@@ -7,7 +7,7 @@ import com.amazonaws.services.simplesystemsmanagement.model.GetParameterResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class SsmApiKeyProvider {
+public class SsmApiKeyProvider implements ApiKeyProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SsmApiKeyProvider.class);
 
@@ -23,6 +23,7 @@ public class SsmApiKeyProvider {
         this.apiKeyParameterName = apiKeyParameterName;
     }
 
+    @Override
     public String getApiKey() {
         LOGGER.info("Reading DigiCert API key from AWS SSM parameter: {}", apiKeyParameterName);
         GetParameterResult result = ssmClient.getParameter(new GetParameterRequest()
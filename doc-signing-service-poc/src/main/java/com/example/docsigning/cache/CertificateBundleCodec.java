@@ -0,0 +1,213 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.crypto.PemDecoder;
+import com.example.docsigning.crypto.PrivateKeyDer;
+import com.example.docsigning.model.CertificateBundle;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value encoding for {@link CertificateBundle}.
+ *
+ * <p>Binary layout (version 1): magic {@code 0xD5 0xCB}, a version byte, a flags byte, then, when the
+ * {@link #FLAG_DEFLATE} flag is set, the uncompressed body length as a 4-byte int followed by the deflated body.
+ * The body is a sequence of {@code tag (1 byte), length (4 bytes), value} fields; unknown tags are skipped,
+ * so fields such as an expiry can be added without a version bump. Each intermediate certificate is its own
+ * {@link #FIELD_CHAIN_CERTIFICATE_DER} field, in chain order.
+ * Certificates and the PKCS#8 key are stored as DER, so a cache hit needs no PEM or Base64 work.
+ *
+ * <p>The legacy {@code base64(crt):base64(key)} text form is still read, and can still be written while
+ * older nodes share the key. It never starts with a byte above {@code 0x7f}, which keeps the two unambiguous.
+ * Older nodes expect PEM inside it (the certificate, and the key as PKCS#8 {@code PRIVATE KEY}), so the text form
+ * re-armors the DER that the archive service now produces; it has no room for the intermediate chain.
+ */
+public class CertificateBundleCodec {
+
+    private static final byte FIELD_CERTIFICATE_DER = 1;
+    private static final byte FIELD_PRIVATE_KEY = 2;
+    private static final byte FIELD_CHAIN_CERTIFICATE_DER = 3;
+
+    private static final byte MAGIC_0 = (byte) 0xD5;
+    private static final byte MAGIC_1 = (byte) 0xCB;
+    private static final byte VERSION = 1;
+    private static final byte FLAG_DEFLATE = 0x01;
+    private static final int HEADER_LENGTH = 4;
+    private static final int FIELD_HEADER_LENGTH = 5;
+
+    private final boolean binary;
+    private final boolean compress;
+
+    public CertificateBundleCodec(boolean binary, boolean compress) {
+        this.binary = binary;
+        this.compress = compress;
+    }
+
+    /**
+     * Returns the bundle as it will look after a round trip through this codec, so freshly fetched and
+     * cache-loaded bundles are byte-for-byte identical.
+     */
+    public CertificateBundle normalize(CertificateBundle bundle) {
+        if (!binary) {
+            return toPem(bundle);
+        }
+        byte[] crt = toDer(bundle.getCrtBytes());
+        byte[] key = bundle.getPrivateKeyBytes() == null ? null : PrivateKeyDer.toPkcs8(bundle.getPrivateKeyBytes());
+        return crt == bundle.getCrtBytes() && key == bundle.getPrivateKeyBytes()
+                ? bundle
+                : new CertificateBundle(crt, key, bundle.getChain());
+    }
+
+    public byte[] encode(CertificateBundle bundle) {
+        if (!binary) {
+            return toPem(bundle).serialize().getBytes(StandardCharsets.US_ASCII);
+        }
+        CertificateBundle normalized = normalize(bundle);
+        byte[] crt = normalized.getCrtBytes();
+        byte[] key = normalized.getPrivateKeyBytes();
+
+        int bodyLength = FIELD_HEADER_LENGTH + crt.length + (key == null ? 0 : FIELD_HEADER_LENGTH + key.length);
+        for (byte[] intermediate : normalized.getChain()) {
+            bodyLength += FIELD_HEADER_LENGTH + intermediate.length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        putField(body, FIELD_CERTIFICATE_DER, crt);
+        if (key != null) {
+            putField(body, FIELD_PRIVATE_KEY, key);
+        }
+        for (byte[] intermediate : normalized.getChain()) {
+            putField(body, FIELD_CHAIN_CERTIFICATE_DER, intermediate);
+        }
+
+        if (!compress) {
+            ByteBuffer out = ByteBuffer.allocate(HEADER_LENGTH + bodyLength);
+            out.put(MAGIC_0).put(MAGIC_1).put(VERSION).put((byte) 0).put(body.array());
+            return out.array();
+        }
+
+        byte[] deflated = deflate(body.array());
+        ByteBuffer out = ByteBuffer.allocate(HEADER_LENGTH + 4 + deflated.length);
+        out.put(MAGIC_0).put(MAGIC_1).put(VERSION).put(FLAG_DEFLATE).putInt(bodyLength).put(deflated);
+        return out.array();
+    }
+
+    public CertificateBundle decode(byte[] value) {
+        if (value.length < HEADER_LENGTH || value[0] != MAGIC_0 || value[1] != MAGIC_1) {
+            return CertificateBundle.deserialize(new String(value, StandardCharsets.US_ASCII));
+        }
+        if (value[2] != VERSION) {
+            throw new IllegalArgumentException("Unsupported certificate bundle encoding version " + value[2]);
+        }
+
+        ByteBuffer body = ByteBuffer.wrap(value, HEADER_LENGTH, value.length - HEADER_LENGTH);
+        if ((value[3] & FLAG_DEFLATE) != 0) {
+            int bodyLength = body.getInt();
+            body = ByteBuffer.wrap(inflate(value, body.position(), body.remaining(), bodyLength));
+        }
+
+        byte[] crt = null;
+        byte[] key = null;
+        List<byte[]> chain = new ArrayList<>(2);
+        while (body.remaining() >= FIELD_HEADER_LENGTH) {
+            byte tag = body.get();
+            int length = body.getInt();
+            if (length < 0 || length > body.remaining()) {
+                throw new IllegalArgumentException("Corrupt certificate bundle field " + tag + " of length " + length);
+            }
+            int start = body.arrayOffset() + body.position();
+            if (tag == FIELD_CERTIFICATE_DER) {
+                crt = Arrays.copyOfRange(body.array(), start, start + length);
+            } else if (tag == FIELD_PRIVATE_KEY) {
+                key = Arrays.copyOfRange(body.array(), start, start + length);
+            } else if (tag == FIELD_CHAIN_CERTIFICATE_DER) {
+                chain.add(Arrays.copyOfRange(body.array(), start, start + length));
+            }
+            // Through Buffer: ByteBuffer.position(int) returning ByteBuffer only exists from Java 9.
+            ((Buffer) body).position(body.position() + length);
+        }
+        if (crt == null) {
+            throw new IllegalArgumentException("Certificate bundle encoding has no certificate field");
+        }
+        return new CertificateBundle(crt, key, chain);
+    }
+
+    /**
+     * The certificate and key as the PEM that pre-DER nodes parse; the chain is kept in memory only.
+     */
+    private static CertificateBundle toPem(CertificateBundle bundle) {
+        byte[] crt = bundle.getCrtBytes();
+        if (!PemDecoder.isPem(crt)) {
+            crt = PemDecoder.encode(crt, PemDecoder.CERTIFICATE);
+        }
+        byte[] key = bundle.getPrivateKeyBytes();
+        if (key != null && !PemDecoder.isPem(key)) {
+            key = PemDecoder.encode(key, PemDecoder.PRIVATE_KEY);
+        } else if (key != null && PemDecoder.decode(key, PemDecoder.RSA_PRIVATE_KEY) != null) {
+            key = PemDecoder.encode(PrivateKeyDer.toPkcs8(key), PemDecoder.PRIVATE_KEY);
+        }
+        return crt == bundle.getCrtBytes() && key == bundle.getPrivateKeyBytes()
+                ? bundle
+                : new CertificateBundle(crt, key, bundle.getChain());
+    }
+
+    private static byte[] toDer(byte[] certificate) {
+        if (!PemDecoder.isPem(certificate)) {
+            return certificate;
+        }
+        byte[] der = PemDecoder.decode(certificate, PemDecoder.CERTIFICATE);
+        return der == null ? certificate : der;
+    }
+
+    private static void putField(ByteBuffer buffer, byte tag, byte[] value) {
+        buffer.put(tag).putInt(value.length).put(value);
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+            byte[] chunk = new byte[Math.max(64, input.length)];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length, int expectedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, length);
+            byte[] out = new byte[expectedLength];
+            int written = 0;
+            while (written < expectedLength && !inflater.finished()) {
+                int n = inflater.inflate(out, written, expectedLength - written);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                written += n;
+            }
+            if (written != expectedLength) {
+                throw new IllegalArgumentException("Corrupt compressed certificate bundle: expected "
+                        + expectedLength + " bytes, got " + written);
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed certificate bundle", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+
+/**
+ * Shared store for certificate bundles, refresh leases and cached signatures, seen by every node. The production
+ * implementation is {@link RedisCertificateCache}; tests and load runs use an in-memory one.
+ */
+public interface CertificateCache extends AutoCloseable {
+
+    /**
+     * Notified when another node stored a new bundle for a selection this node has used.
+     */
+    interface RotationListener {
+
+        /**
+         * @param fingerprint fingerprint of the stored bundle, or {@code null} when unknown (e.g. after missed messages)
+         */
+        void onRotation(CertificateSelector selector, String fingerprint);
+    }
+
+    /**
+     * The selection's bundle with its expiry, or {@code null} on a miss.
+     */
+    CachedCertificate getWithExpiry(CertificateSelector selector);
+
+    /**
+     * Stores the selection's bundle and returns it as readers will see it.
+     */
+    CachedCertificate put(CertificateSelector selector, CertificateBundle bundle);
+
+    /**
+     * Stores the bundle fetched under {@code lease} and announces the rotation to other nodes.
+     *
+     * @return the stored bundle, or {@code null} if a holder of a newer lease has already written one
+     */
+    CachedCertificate put(CertificateBundle bundle, RefreshLease lease);
+
+    /**
+     * Returns {@code bundle} as {@link #put} would store it, without storing it. Stores that keep bundles as given
+     * return it unchanged.
+     */
+    default CertificateBundle normalize(CertificateBundle bundle) {
+        return bundle;
+    }
+
+    /**
+     * Tries to become the only node fetching {@code selector}'s certificate from DigiCert.
+     *
+     * @return the lease, or {@code null} if another node currently holds it
+     */
+    RefreshLease tryAcquireRefreshLease(CertificateSelector selector);
+
+    void releaseRefreshLease(RefreshLease lease);
+
+    long getRefreshLeaseMillis();
+
+    /**
+     * Reports bundles stored by other nodes until the returned handle is closed.
+     */
+    AutoCloseable subscribeToRotations(RotationListener listener);
+
+    /**
+     * Reads a signature stored by {@link #putSignature}; {@code null} on a miss.
+     */
+    byte[] getSignature(String id);
+
+    void putSignature(String id, byte[] signature, int ttlSeconds);
+
+    /**
+     * Opens up to {@code connections} connections ahead of traffic; a no-op for stores without connections.
+     */
+    void prewarm(int connections);
+
+    int getTtlSeconds();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,205 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encrypted on-disk copy of the last good certificate bundle per selection, so a starting node can sign before
+ * SSM, Redis or DigiCert answer.
+ *
+ * <p>File layout (version 1): magic {@code 0xD5 0x5E}, a version byte, a reserved byte, the certificate's
+ * {@code notAfter} as epoch milliseconds (8 bytes), a 12-byte IV, then the {@link CertificateBundleCodec} binary
+ * encoding of the bundle sealed with AES-GCM. The header and the selection are authenticated as associated data, so
+ * neither the expiry nor the file name can be swapped without failing decryption.
+ *
+ * <p>Snapshots are written to a temporary file in the same directory, forced to disk and renamed over the previous
+ * one, so a crash leaves either the old or the new snapshot. They are read through a memory mapping and decrypted
+ * straight from it. A snapshot whose certificate is past {@code notAfter}, or that fails to decrypt, is never used.
+ */
+public class CertificateSnapshotStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificateSnapshotStore.class);
+
+    private static final byte MAGIC_0 = (byte) 0xD5;
+    private static final byte MAGIC_1 = (byte) 0x5E;
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int HEADER_LENGTH = 4 + 8 + IV_LENGTH;
+    private static final int MAX_SNAPSHOT_BYTES = 1024 * 1024;
+    private static final String SUFFIX = ".snapshot";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final SecretKey key;
+    private final CertificateBundleCodec codec = new CertificateBundleCodec(true, false);
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder written = SigningMetrics.shared().counter("certificate_snapshot.written");
+    private final LongAdder restored = SigningMetrics.shared().counter("certificate_snapshot.restored");
+    private final LongAdder rejected = SigningMetrics.shared().counter("certificate_snapshot.rejected");
+
+    /**
+     * @param aesKey 16, 24 or 32 bytes
+     */
+    public CertificateSnapshotStore(Path directory, byte[] aesKey) {
+        if (aesKey == null || (aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32)) {
+            throw new IllegalArgumentException("Certificate snapshot key must be 16, 24 or 32 bytes");
+        }
+        this.directory = directory;
+        this.key = new SecretKeySpec(aesKey, "AES");
+    }
+
+    /**
+     * Replaces the snapshot of {@code selector} with {@code bundle}.
+     */
+    public void save(CertificateSelector selector, CertificateBundle bundle) throws IOException, GeneralSecurityException {
+        byte[] encoded = codec.encode(bundle);
+        long notAfterMillis = notAfterMillis(codec.normalize(bundle).getCrtBytes());
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC_0).put(MAGIC_1).put(VERSION).put((byte) 0).putLong(notAfterMillis).put(iv);
+        Cipher cipher = cipher(Cipher.ENCRYPT_MODE, iv, header.array(), selector);
+        byte[] sealed = cipher.doFinal(encoded);
+
+        Files.createDirectories(directory);
+        Path target = pathFor(selector);
+        Path temporary = createTemporary(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer[] contents = {ByteBuffer.wrap(header.array()), ByteBuffer.wrap(sealed)};
+                while (contents[1].hasRemaining()) {
+                    channel.write(contents);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        written.increment();
+        LOGGER.info("Wrote certificate snapshot for {} to {} (certificate valid until {})", selector, target,
+                new Date(notAfterMillis));
+    }
+
+    /**
+     * The snapshot of {@code selector}, valid until the certificate's {@code notAfter}, or {@code null} when there is
+     * none or it cannot be used.
+     */
+    public CachedCertificate load(CertificateSelector selector) {
+        Path path = pathFor(selector);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH + TAG_BITS / 8 || size > MAX_SNAPSHOT_BYTES) {
+                return reject(path, "unexpected size " + size, null);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] header = new byte[HEADER_LENGTH];
+            mapped.get(header);
+            ByteBuffer headerView = ByteBuffer.wrap(header);
+            if (headerView.get() != MAGIC_0 || headerView.get() != MAGIC_1 || headerView.get() != VERSION) {
+                return reject(path, "unknown format", null);
+            }
+            headerView.get();
+            long notAfterMillis = headerView.getLong();
+            if (notAfterMillis <= System.currentTimeMillis()) {
+                return reject(path, "certificate expired at " + new Date(notAfterMillis), null);
+            }
+            byte[] iv = new byte[IV_LENGTH];
+            headerView.get(iv);
+
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, iv, header, selector);
+            ByteBuffer plain = ByteBuffer.allocate(cipher.getOutputSize(mapped.remaining()));
+            cipher.doFinal(mapped, plain);
+            CertificateBundle bundle = codec.decode(Arrays.copyOf(plain.array(), plain.position()));
+            restored.increment();
+            LOGGER.info("Restored certificate snapshot for {} from {} (certificate valid until {})", selector, path,
+                    new Date(notAfterMillis));
+            return new CachedCertificate(bundle, notAfterMillis);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            return reject(path, e.getMessage(), e);
+        }
+    }
+
+    Path pathFor(CertificateSelector selector) {
+        if (selector.isDefault()) {
+            return directory.resolve("default" + SUFFIX);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(selector.toCacheKeySuffix().getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + SUFFIX.length());
+            for (byte b : digest) {
+                name.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+            }
+            return directory.resolve(name.append(SUFFIX).toString());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] iv, byte[] header, CertificateSelector selector) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(header);
+        cipher.updateAAD(selector.toCacheKeySuffix().getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+
+    /**
+     * Owner-only temporary file next to {@code target}, so the final rename stays on one file system.
+     */
+    private Path createTemporary(Path target) throws IOException {
+        String prefix = target.getFileName().toString();
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return Files.createTempFile(directory, prefix, ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        return Files.createTempFile(directory, prefix, ".tmp");
+    }
+
+    private CachedCertificate reject(Path path, String reason, Exception cause) {
+        rejected.increment();
+        LOGGER.warn("Ignoring certificate snapshot {}: {}", path, reason, cause);
+        return null;
+    }
+
+    private static long notAfterMillis(byte[] certificateDer) throws GeneralSecurityException {
+        X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(certificateDer));
+        return certificate.getNotAfter().getTime();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.crypto.PemDecoder;
+import com.example.docsigning.crypto.PrivateKeyDer;
+import com.example.docsigning.metrics.LatencyHistogram;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.SigningKeyMaterial;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process cache of parsed signing material, sitting in front of {@link RedisCertificateCache}.
+ * Entries are keyed by bundle fingerprint, so a rotated bundle is parsed once and the material of
+ * the bundle it replaced ages out: once {@code maxEntries} is reached the oldest parsed entry is evicted.
+ */
+public class KeyMaterialCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyMaterialCache.class);
+    private static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final LatencyHistogram keyParseLatency = SigningMetrics.shared().histogram(SigningMetrics.KEY_PARSE);
+
+    public KeyMaterialCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public KeyMaterialCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public SigningKeyMaterial resolve(CertificateBundle bundle) throws GeneralSecurityException {
+        String fingerprint = bundle.getFingerprint();
+        Entry cached = entries.get(fingerprint);
+        if (cached != null) {
+            return cached.material;
+        }
+
+        long start = System.nanoTime();
+        SigningKeyMaterial parsed = parse(bundle, fingerprint);
+        keyParseLatency.recordSince(start);
+        evictOldestIfFull();
+        entries.put(fingerprint, new Entry(parsed));
+        LOGGER.info("Parsed signing key material for bundle fingerprint {} (subject: {})", fingerprint, parsed.getSubjectName());
+        if (!parsed.hasPrivateKey()) {
+            LOGGER.warn("No private key found in certificate bundle; documents will get attestation digests instead of signatures");
+        }
+        return parsed;
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * Forgets the material parsed from the bundle with {@code fingerprint}.
+     */
+    public void invalidate(String fingerprint) {
+        entries.remove(fingerprint);
+    }
+
+    private void evictOldestIfFull() {
+        while (entries.size() >= maxEntries) {
+            Map.Entry<String, Entry> oldest = null;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (oldest == null || candidate.getValue().parsedAtNanos < oldest.getValue().parsedAtNanos) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null || entries.remove(oldest.getKey()) == null) {
+                return;
+            }
+        }
+    }
+
+    private SigningKeyMaterial parse(CertificateBundle bundle, String fingerprint) throws GeneralSecurityException {
+        X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(bundle.getCrtBytes()));
+        PrivateKey privateKey = bundle.getPrivateKeyBytes() == null
+                ? null
+                : parsePrivateKey(bundle.getPrivateKeyBytes(), certificate.getPublicKey().getAlgorithm());
+        return new SigningKeyMaterial(fingerprint, certificate, privateKey);
+    }
+
+    /**
+     * Parses the key with the {@link KeyFactory} of the certificate's key algorithm (RSA, EC, EdDSA...), so the
+     * signer can pick its engine from the key.
+     */
+    private PrivateKey parsePrivateKey(byte[] keyBytes, String keyAlgorithm) throws GeneralSecurityException {
+        byte[] pkcs8 = PrivateKeyDer.toPkcs8(keyBytes);
+        if (PemDecoder.isPem(pkcs8)) {
+            throw new IllegalStateException("Unsupported private key PEM. Provide PKCS#8 (BEGIN PRIVATE KEY) or PKCS#1 RSA keys.");
+        }
+        return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+    }
+
+    private static final class Entry {
+
+        private final SigningKeyMaterial material;
+        private final long parsedAtNanos = System.nanoTime();
+
+        Entry(SigningKeyMaterial material) {
+            this.material = material;
+        }
+    }
+}
@@ -1,46 +1,543 @@
 package com.example.docsigning.cache;
 
+import com.example.docsigning.metrics.LatencyHistogram;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CachedCertificate;
 import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Connection;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
 
-public class RedisCertificateCache implements AutoCloseable {
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RedisCertificateCache implements CertificateCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisCertificateCache.class);
+    private static final long DEFAULT_REFRESH_LEASE_MILLIS = 30_000L;
+    private static final long SUBSCRIBER_RETRY_MILLIS = 1_000L;
+    private static final String INVALIDATION_CHANNEL = "__redis__:invalidate";
+
+    /**
+     * Writes the bundle only if no newer fencing token has been stored for it, then announces the rotation.
+     * KEYS: value, stored fencing token. ARGV: bundle, TTL seconds, fencing token, channel, message.
+     */
+    private static final byte[] FENCED_PUT_SCRIPT = (
+            "local stored = tonumber(redis.call('GET', KEYS[2]) or '0') "
+                    + "if stored > tonumber(ARGV[3]) then return 0 end "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) "
+                    + "redis.call('SET', KEYS[2], ARGV[3], 'EX', ARGV[2]) "
+                    + "redis.call('PUBLISH', ARGV[4], ARGV[5]) "
+                    + "return 1").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Draws the next fencing token and pushes the sequence's expiry out, so selections no longer requested do not
+     * leave counters behind. KEYS: sequence. ARGV: expiry in milliseconds.
+     */
+    private static final String NEXT_FENCING_TOKEN_SCRIPT =
+            "local token = redis.call('INCR', KEYS[1]) redis.call('PEXPIRE', KEYS[1], ARGV[1]) return token";
+
+    private static final String RELEASE_LEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
 
+    private final RedisPoolSettings poolSettings;
     private final JedisPool jedisPool;
     private final String cacheKey;
+    private final ConcurrentMap<CertificateSelector, String> selectorKeys = new ConcurrentHashMap<>();
     private final int ttlSeconds;
+    private final CertificateBundleCodec codec;
+    private final long refreshLeaseMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String rotationChannel;
+    private final LatencyHistogram roundTripLatency = SigningMetrics.shared().histogram(SigningMetrics.REDIS_ROUND_TRIP);
+    private final LongAdder hits = SigningMetrics.shared().counter(SigningMetrics.REDIS_CACHE_HIT);
+    private final LongAdder misses = SigningMetrics.shared().counter(SigningMetrics.REDIS_CACHE_MISS);
+    private final LongAdder nearHits = SigningMetrics.shared().counter("cache.redis.near_hit");
+    private final LongAdder invalidations = SigningMetrics.shared().counter("cache.redis.invalidations");
+    private final long nearCacheMaxAgeMillis;
+    private final ConcurrentMap<String, NearEntry> nearCache = new ConcurrentHashMap<>();
+    private final InvalidationTracking invalidationTracking;
 
     public RedisCertificateCache(String redisEndpoint, int redisPort, String cacheKey, int ttlSeconds) {
-        this.jedisPool = new JedisPool(redisEndpoint, redisPort);
+        this(redisEndpoint, redisPort, cacheKey, ttlSeconds, new CertificateBundleCodec(true, false));
+    }
+
+    public RedisCertificateCache(String redisEndpoint, int redisPort, String cacheKey, int ttlSeconds,
+                                 CertificateBundleCodec codec) {
+        this(redisEndpoint, redisPort, cacheKey, ttlSeconds, codec, DEFAULT_REFRESH_LEASE_MILLIS);
+    }
+
+    /**
+     * @param refreshLeaseMillis how long one node may hold the DigiCert refresh lease before others may take over
+     */
+    public RedisCertificateCache(String redisEndpoint, int redisPort, String cacheKey, int ttlSeconds,
+                                 CertificateBundleCodec codec, long refreshLeaseMillis) {
+        this(RedisPoolSettings.defaults(redisEndpoint, redisPort), cacheKey, ttlSeconds, codec, refreshLeaseMillis, 0);
+    }
+
+    /**
+     * @param nearCacheMaxAgeMillis when positive, bundles read from Redis are kept in process and served without a
+     *                              round trip until Redis reports the key changed (client tracking) or they are
+     *                              this old; {@code 0} reads Redis on every call
+     */
+    public RedisCertificateCache(RedisPoolSettings poolSettings, String cacheKey, int ttlSeconds,
+                                 CertificateBundleCodec codec, long refreshLeaseMillis, long nearCacheMaxAgeMillis) {
+        this.poolSettings = poolSettings;
+        this.jedisPool = poolSettings.createPool();
         this.cacheKey = cacheKey;
         this.ttlSeconds = ttlSeconds;
+        this.codec = codec;
+        this.refreshLeaseMillis = refreshLeaseMillis;
+        this.rotationChannel = cacheKey + ":rotation";
+        this.nearCacheMaxAgeMillis = nearCacheMaxAgeMillis;
+        if (nearCacheMaxAgeMillis > 0) {
+            this.invalidationTracking = new InvalidationTracking();
+            Thread thread = new Thread(invalidationTracking, "redis-invalidation-tracking");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            this.invalidationTracking = null;
+        }
     }
 
     public CertificateBundle get() {
+        CachedCertificate cached = getWithExpiry();
+        return cached == null ? null : cached.getBundle();
+    }
+
+    public CachedCertificate getWithExpiry() {
+        return getWithExpiry(CertificateSelector.DEFAULT);
+    }
+
+    /**
+     * Reads the selection's bundle and its remaining TTL in one pipelined round trip.
+     */
+    @Override
+    public CachedCertificate getWithExpiry(CertificateSelector selector) {
+        String key = keyFor(selector);
+        InvalidationTracking tracking = invalidationTracking;
+        if (tracking == null || !tracking.active) {
+            return read(key);
+        }
+
+        long now = System.currentTimeMillis();
+        NearEntry near = nearCache.get(key);
+        if (near != null && near.cached.isValidAt(now) && now - near.loadedAtMillis < nearCacheMaxAgeMillis) {
+            nearHits.increment();
+            return near.cached;
+        }
+        // An invalidation arriving while the read is in flight may concern the value being read; don't keep it then.
+        long generation = tracking.generation.get();
+        CachedCertificate cached = read(key);
+        if (cached != null && tracking.active && tracking.generation.get() == generation) {
+            nearCache.put(key, new NearEntry(cached, now));
+        }
+        return cached;
+    }
+
+    private CachedCertificate read(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            Response<byte[]> value = pipeline.get(keyBytes);
+            Response<Long> remainingTtl = pipeline.pttl(keyBytes);
+            pipeline.sync();
+            roundTripLatency.recordSince(start);
+
+            long now = System.currentTimeMillis();
+            if (value.get() == null) {
+                misses.increment();
+                LOGGER.info("Redis cache miss for key {}", key);
+                return null;
+            }
+            hits.increment();
+            long ttlMillis = remainingTtl.get() >= 0 ? remainingTtl.get() : ttlSeconds * 1000L;
+            LOGGER.debug("Redis cache hit for key {} ({} ms remaining)", key, ttlMillis);
+            return new CachedCertificate(codec.decode(value.get()), now + ttlMillis);
+        }
+    }
+
+    public CachedCertificate put(CertificateBundle bundle) {
+        return put(CertificateSelector.DEFAULT, bundle);
+    }
+
+    @Override
+    public CertificateBundle normalize(CertificateBundle bundle) {
+        return codec.normalize(bundle);
+    }
+
+    /**
+     * Stores the selection's bundle and returns it as readers will see it, i.e. normalized by the codec.
+     */
+    @Override
+    public CachedCertificate put(CertificateSelector selector, CertificateBundle bundle) {
+        String key = keyFor(selector);
+        CertificateBundle normalized = codec.normalize(bundle);
+        byte[] encoded = codec.encode(normalized);
+        long start = System.nanoTime();
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.setex(key.getBytes(StandardCharsets.UTF_8), ttlSeconds, encoded);
+            jedis.publish(rotationChannel, rotationMessage(key, normalized));
+            roundTripLatency.recordSince(start);
+            LOGGER.info("Stored certificate bundle in Redis under key {} with TTL {} seconds", key, ttlSeconds);
+            return new CachedCertificate(normalized, System.currentTimeMillis() + ttlSeconds * 1000L);
+        }
+    }
+
+    /**
+     * Stores the bundle fetched under {@code lease} and announces the rotation to other nodes.
+     *
+     * @return the stored bundle, or {@code null} if a holder of a newer lease has already written one
+     */
+    @Override
+    public CachedCertificate put(CertificateBundle bundle, RefreshLease lease) {
+        String key = keyFor(lease.getSelector());
+        CertificateBundle normalized = codec.normalize(bundle);
+        byte[] encoded = codec.encode(normalized);
+        long start = System.nanoTime();
         try (Jedis jedis = jedisPool.getResource()) {
-            String value = jedis.get(cacheKey);
-            if (value == null) {
-                LOGGER.info("Redis cache miss for key {}", cacheKey);
+            Object written = jedis.eval(FENCED_PUT_SCRIPT,
+                    Arrays.asList(bytes(key), bytes(key + ":fence")),
+                    Arrays.asList(encoded, bytes(String.valueOf(ttlSeconds)), bytes(String.valueOf(lease.getFencingToken())),
+                            bytes(rotationChannel), bytes(rotationMessage(key, normalized))));
+            roundTripLatency.recordSince(start);
+            if (!Long.valueOf(1L).equals(written)) {
+                LOGGER.warn("Discarded certificate bundle for key {}: {} is older than the stored one", key, lease);
                 return null;
             }
-            LOGGER.info("Redis cache hit for key {}", cacheKey);
-            return CertificateBundle.deserialize(value);
+            LOGGER.info("Stored certificate bundle in Redis under key {} with TTL {} seconds ({})", key, ttlSeconds, lease);
+            return new CachedCertificate(normalized, System.currentTimeMillis() + ttlSeconds * 1000L);
+        }
+    }
+
+    /**
+     * Tries to become the only node fetching {@code selector}'s certificate from DigiCert.
+     *
+     * @return the lease, or {@code null} if another node currently holds it
+     */
+    @Override
+    public RefreshLease tryAcquireRefreshLease(CertificateSelector selector) {
+        String key = keyFor(selector);
+        try (Jedis jedis = jedisPool.getResource()) {
+            long fencingToken = (Long) jedis.eval(NEXT_FENCING_TOKEN_SCRIPT,
+                    Collections.singletonList(key + ":fence-seq"),
+                    Collections.singletonList(String.valueOf(fenceSequenceTtlMillis())));
+            String owner = nodeId + ":" + fencingToken;
+            String acquired = jedis.set(key + ":lease", owner, SetParams.setParams().nx().px(refreshLeaseMillis));
+            if (acquired == null) {
+                LOGGER.debug("Refresh lease for key {} is held by another node", key);
+                return null;
+            }
+            LOGGER.info("Acquired refresh lease for key {} with fencing token {}", key, fencingToken);
+            return new RefreshLease(selector, owner, fencingToken);
+        }
+    }
+
+    /**
+     * How long an idle fencing sequence is kept. It outlives the stored token ({@code :fence}, kept for one bundle
+     * TTL) and any outstanding lease, so a restarted sequence never hands out a token below one still in force.
+     */
+    private long fenceSequenceTtlMillis() {
+        return 2L * ttlSeconds * 1000L + refreshLeaseMillis;
+    }
+
+    @Override
+    public void releaseRefreshLease(RefreshLease lease) {
+        String key = keyFor(lease.getSelector());
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.eval(RELEASE_LEASE_SCRIPT, Collections.singletonList(key + ":lease"),
+                    Collections.singletonList(lease.getOwner()));
+        }
+    }
+
+    @Override
+    public long getRefreshLeaseMillis() {
+        return refreshLeaseMillis;
+    }
+
+    /**
+     * Listens on the rotation channel on a dedicated connection and reports bundles stored by other nodes.
+     * After a lost connection every known selection is reported, since rotations may have been missed.
+     */
+    @Override
+    public AutoCloseable subscribeToRotations(RotationListener listener) {
+        RotationSubscription subscription = new RotationSubscription(listener);
+        Thread thread = new Thread(subscription, "certificate-rotation-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+        return subscription;
+    }
+
+    /**
+     * The default selection keeps the configured key so existing deployments share their cached bundle;
+     * other selections get the selector appended.
+     */
+    private String keyFor(CertificateSelector selector) {
+        if (selector.isDefault()) {
+            return cacheKey;
+        }
+        return selectorKeys.computeIfAbsent(selector, s -> cacheKey + ":" + s.toCacheKeySuffix());
+    }
+
+    /**
+     * Reads a signature stored by {@link #putSignature}; {@code null} on a miss. Signature keys live under
+     * {@code sig:<cacheKey>:} rather than the cache key itself, so they stay out of client-tracking invalidations.
+     */
+    @Override
+    public byte[] getSignature(String id) {
+        long start = System.nanoTime();
+        try (Jedis jedis = jedisPool.getResource()) {
+            byte[] signature = jedis.get(bytes(signatureKey(id)));
+            roundTripLatency.recordSince(start);
+            return signature;
         }
     }
 
-    public void put(CertificateBundle bundle) {
+    @Override
+    public void putSignature(String id, byte[] signature, int ttlSeconds) {
+        long start = System.nanoTime();
         try (Jedis jedis = jedisPool.getResource()) {
-            jedis.setex(cacheKey, ttlSeconds, bundle.serialize());
-            LOGGER.info("Stored certificate bundle in Redis under key {} with TTL {} seconds", cacheKey, ttlSeconds);
+            jedis.setex(bytes(signatureKey(id)), ttlSeconds, signature);
+            roundTripLatency.recordSince(start);
+        }
+    }
+
+    private String signatureKey(String id) {
+        return "sig:" + cacheKey + ":" + id;
+    }
+
+    /**
+     * Opens up to {@code connections} pooled connections up front so the first requests do not pay for the
+     * TCP handshake.
+     */
+    @Override
+    public void prewarm(int connections) {
+        int count = Math.min(connections, poolSettings.getMaxTotal());
+        List<Jedis> borrowed = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Jedis jedis = jedisPool.getResource();
+                borrowed.add(jedis);
+                jedis.ping();
+            }
+        } finally {
+            for (Jedis jedis : borrowed) {
+                jedis.close();
+            }
+        }
+        LOGGER.info("Opened {} Redis connections", borrowed.size());
+    }
+
+    private String rotationMessage(String key, CertificateBundle bundle) {
+        return nodeId + ' ' + key + ' ' + bundle.getFingerprint();
+    }
+
+    private CertificateSelector selectorFor(String key) {
+        if (cacheKey.equals(key)) {
+            return CertificateSelector.DEFAULT;
+        }
+        for (Map.Entry<CertificateSelector, String> entry : selectorKeys.entrySet()) {
+            if (entry.getValue().equals(key)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private final class RotationSubscription extends JedisPubSub implements Runnable, AutoCloseable {
+
+        private final RotationListener listener;
+        private volatile boolean closed;
+
+        RotationSubscription(RotationListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            boolean reconnecting = false;
+            while (!closed) {
+                try (Jedis jedis = new Jedis(poolSettings.getHost(), poolSettings.getPort(), poolSettings.getConnectTimeoutMillis(), 0)) {
+                    if (reconnecting) {
+                        listener.onRotation(CertificateSelector.DEFAULT, null);
+                        for (CertificateSelector selector : selectorKeys.keySet()) {
+                            listener.onRotation(selector, null);
+                        }
+                    }
+                    jedis.subscribe(this, rotationChannel);
+                } catch (RuntimeException e) {
+                    if (closed) {
+                        break;
+                    }
+                    LOGGER.warn("Certificate rotation subscription lost; reconnecting in {} ms", SUBSCRIBER_RETRY_MILLIS, e);
+                    reconnecting = true;
+                    try {
+                        Thread.sleep(SUBSCRIBER_RETRY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            String[] parts = message.split(" ", 3);
+            if (parts.length < 2 || nodeId.equals(parts[0])) {
+                return;
+            }
+            CertificateSelector selector = selectorFor(parts[1]);
+            if (selector != null) {
+                String fingerprint = parts.length > 2 ? parts[2] : null;
+                LOGGER.debug("Certificate for {} stored by another node ({})", selector, fingerprint);
+                listener.onRotation(selector, fingerprint);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            if (isSubscribed()) {
+                unsubscribe();
+            }
+        }
+    }
+
+    private static final class NearEntry {
+
+        private final CachedCertificate cached;
+        private final long loadedAtMillis;
+
+        NearEntry(CachedCertificate cached, long loadedAtMillis) {
+            this.cached = cached;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+
+    /**
+     * Redis client tracking in broadcast mode: a dedicated connection runs
+     * {@code CLIENT TRACKING ON REDIRECT <id> BCAST PREFIX <cacheKey>} and invalidations for every key under the
+     * cache key are pushed to a second connection subscribed to {@code __redis__:invalidate}. The near cache is only
+     * used while both connections are up; any failure clears it and reconnects.
+     *
+     * <p>This is the RESP2 form of tracking on purpose: the pool's connections speak RESP2, and this Jedis version
+     * does not hand RESP3 push messages to callers, so invalidations are redirected to a Pub/Sub connection instead.
+     */
+    private final class InvalidationTracking implements Runnable {
+
+        private final AtomicLong generation = new AtomicLong();
+        private volatile boolean active;
+        private volatile boolean closed;
+        private volatile Jedis subscriber;
+
+        @Override
+        public void run() {
+            while (!closed) {
+                try (Jedis invalidations = connect(0); Jedis tracking = connect(poolSettings.getSocketTimeoutMillis())) {
+                    subscriber = invalidations;
+                    long subscriberId = invalidations.clientId();
+                    Connection connection = invalidations.getConnection();
+                    connection.sendCommand(Protocol.Command.SUBSCRIBE, INVALIDATION_CHANNEL);
+                    connection.getObjectMultiBulkReply();
+                    tracking.sendCommand(Protocol.Command.CLIENT, "TRACKING", "ON", "REDIRECT",
+                            String.valueOf(subscriberId), "BCAST", "PREFIX", cacheKey);
+                    clear();
+                    active = true;
+                    LOGGER.info("Redis client-side caching enabled for keys under {}", cacheKey);
+                    while (!closed) {
+                        onInvalidation((List<?>) connection.getUnflushedObject());
+                    }
+                } catch (RuntimeException e) {
+                    active = false;
+                    clear();
+                    if (closed) {
+                        break;
+                    }
+                    LOGGER.warn("Redis invalidation tracking lost; reading through to Redis and reconnecting in {} ms",
+                            SUBSCRIBER_RETRY_MILLIS, e);
+                    try {
+                        Thread.sleep(SUBSCRIBER_RETRY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Handles {@code ["message", channel, keys]}; {@code keys} is {@code null} after FLUSHALL/FLUSHDB.
+         */
+        private void onInvalidation(List<?> message) {
+            if (message.size() < 3 || !"message".equals(SafeEncoder.encode((byte[]) message.get(0)))) {
+                return;
+            }
+            invalidations.increment();
+            generation.incrementAndGet();
+            Object keys = message.get(2);
+            if (!(keys instanceof List)) {
+                nearCache.clear();
+                return;
+            }
+            for (Object key : (List<?>) keys) {
+                nearCache.remove(SafeEncoder.encode((byte[]) key));
+            }
+        }
+
+        private void clear() {
+            generation.incrementAndGet();
+            nearCache.clear();
+        }
+
+        private Jedis connect(int socketTimeoutMillis) {
+            return new Jedis(poolSettings.getHost(), poolSettings.getPort(), poolSettings.getConnectTimeoutMillis(),
+                    socketTimeoutMillis);
+        }
+
+        void close() {
+            closed = true;
+            active = false;
+            Jedis current = subscriber;
+            if (current != null) {
+                current.getConnection().disconnect();
+            }
         }
     }
 
+    @Override
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
     @Override
     public void close() {
+        if (invalidationTracking != null) {
+            invalidationTracking.close();
+        }
         jedisPool.close();
     }
 }
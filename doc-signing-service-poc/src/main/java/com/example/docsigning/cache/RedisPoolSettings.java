@@ -0,0 +1,75 @@
+package com.example.docsigning.cache;
+
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+
+/**
+ * Connection pool sizing and timeouts for {@link RedisCertificateCache}.
+ */
+public final class RedisPoolSettings {
+
+    private final String host;
+    private final int port;
+    private final int maxTotal;
+    private final int minIdle;
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final long maxWaitMillis;
+
+    /**
+     * @param maxTotal             connections the pool may open
+     * @param minIdle              idle connections the pool keeps open once warmed up
+     * @param connectTimeoutMillis TCP connect timeout
+     * @param socketTimeoutMillis  read timeout for a single command
+     * @param maxWaitMillis        how long a caller waits for a free connection when all are borrowed
+     */
+    public RedisPoolSettings(String host, int port, int maxTotal, int minIdle,
+                             int connectTimeoutMillis, int socketTimeoutMillis, long maxWaitMillis) {
+        this.host = host;
+        this.port = port;
+        this.maxTotal = maxTotal;
+        this.minIdle = minIdle;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Jedis' own defaults: 8 connections, no idle floor, 2 s timeouts, unbounded wait.
+     */
+    public static RedisPoolSettings defaults(String host, int port) {
+        return new RedisPoolSettings(host, port, JedisPoolConfig.DEFAULT_MAX_TOTAL, 0, 2_000, 2_000, -1);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    JedisPool createPool() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(maxTotal);
+        config.setMaxIdle(maxTotal);
+        config.setMinIdle(minIdle);
+        config.setMaxWait(Duration.ofMillis(maxWaitMillis));
+        config.setBlockWhenExhausted(true);
+        return new JedisPool(config, host, port, connectTimeoutMillis, socketTimeoutMillis, null, 0, null);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.model.CertificateSelector;
+
+/**
+ * Exclusive right, held in Redis for a limited time, to fetch a selection's certificate from DigiCert.
+ * The fencing token grows with every lease ever granted for the cache key; a write carrying an older token
+ * than the one already stored is refused, so a node whose lease expired mid-fetch cannot overwrite a newer
+ * certificate.
+ */
+public final class RefreshLease {
+
+    private final CertificateSelector selector;
+    private final String owner;
+    private final long fencingToken;
+
+    public RefreshLease(CertificateSelector selector, String owner, long fencingToken) {
+        this.selector = selector;
+        this.owner = owner;
+        this.fencingToken = fencingToken;
+    }
+
+    public CertificateSelector getSelector() {
+        return selector;
+    }
+
+    String getOwner() {
+        return owner;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshLease{" + selector + ", fencingToken=" + fencingToken + '}';
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.resilience.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a slow or unavailable Redis off the signing path. Every call to the wrapped cache goes through a
+ * {@link CircuitBreaker}; a failed call, or any call while the circuit is open, falls back instead of throwing:
+ * <ul>
+ *     <li>reads return the last bundle this node saw for the selection, valid for at least {@code fallbackTtlMillis},
+ *     or {@code null} when it has none, so the orchestrator goes to DigiCert;</li>
+ *     <li>refresh leases are granted locally, so this node fetches on its own while Redis is away;</li>
+ *     <li>signature lookups miss.</li>
+ * </ul>
+ * Writes (bundles, signatures, lease releases) are queued to one background writer, in order, and return at once;
+ * a bundle put returns the bundle normalized as the wrapped cache will store it, and once the write lands the last
+ * known bundle becomes the one the wrapped cache returned. Writes that find the queue full or the circuit open are
+ * dropped, leaving the locally normalized copy. Because fenced writes complete later, a put under a lease never
+ * reports that a newer holder already wrote; the bundle this node fetched is used until the next refresh or rotation,
+ * and the fallback forgets it.
+ */
+public class ResilientCertificateCache implements CertificateCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResilientCertificateCache.class);
+    private static final long LOCAL_FENCING_TOKEN = 0L;
+    private static final String LOCAL_LEASE_OWNER = "local";
+    private static final long CLOSE_TIMEOUT_MILLIS = 2_000L;
+
+    private final CertificateCache delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final long fallbackTtlMillis;
+    private final ThreadPoolExecutor writer;
+    private final ConcurrentMap<CertificateSelector, CachedCertificate> lastKnown = new ConcurrentHashMap<>();
+    private final LongAdder failures = SigningMetrics.shared().counter("cache.redis.failures");
+    private final LongAdder fallbacks = SigningMetrics.shared().counter("cache.redis.fallbacks");
+    private final LongAdder droppedWrites = SigningMetrics.shared().counter("cache.redis.dropped_writes");
+
+    /**
+     * @param fallbackTtlMillis  minimum validity given to the last known bundle when Redis cannot be read
+     * @param writeQueueCapacity writes that may wait for the background writer before new ones are dropped
+     */
+    public ResilientCertificateCache(CertificateCache delegate, CircuitBreaker circuitBreaker, long fallbackTtlMillis,
+                                     int writeQueueCapacity) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackTtlMillis = fallbackTtlMillis;
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "redis-cache-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        SigningMetrics.shared().gauge("cache.redis.healthy",
+                () -> circuitBreaker.getState() == CircuitBreaker.State.CLOSED ? 1 : 0);
+        SigningMetrics.shared().gauge("cache.redis.pending_writes", () -> writer.getQueue().size());
+    }
+
+    @Override
+    public CachedCertificate getWithExpiry(CertificateSelector selector) {
+        return call("read", () -> {
+            CachedCertificate cached = delegate.getWithExpiry(selector);
+            if (cached != null) {
+                lastKnown.put(selector, cached);
+            }
+            return cached;
+        }, () -> fallback(selector));
+    }
+
+    @Override
+    public CachedCertificate put(CertificateSelector selector, CertificateBundle bundle) {
+        CachedCertificate provisional = remember(selector, bundle);
+        write("put", () -> adopt(selector, provisional, delegate.put(selector, bundle)));
+        return provisional;
+    }
+
+    @Override
+    public CachedCertificate put(CertificateBundle bundle, RefreshLease lease) {
+        CertificateSelector selector = lease.getSelector();
+        CachedCertificate provisional = remember(selector, bundle);
+        if (isLocal(lease)) {
+            write("put", () -> adopt(selector, provisional, delegate.put(selector, bundle)));
+        } else {
+            write("fenced put", () -> adopt(selector, provisional, delegate.put(bundle, lease)));
+        }
+        return provisional;
+    }
+
+    @Override
+    public CertificateBundle normalize(CertificateBundle bundle) {
+        return delegate.normalize(bundle);
+    }
+
+    @Override
+    public RefreshLease tryAcquireRefreshLease(CertificateSelector selector) {
+        return call("lease", () -> delegate.tryAcquireRefreshLease(selector), () -> {
+            LOGGER.info("Redis unavailable; refreshing the certificate for {} without a shared lease", selector);
+            return new RefreshLease(selector, LOCAL_LEASE_OWNER, LOCAL_FENCING_TOKEN);
+        });
+    }
+
+    @Override
+    public void releaseRefreshLease(RefreshLease lease) {
+        if (!isLocal(lease)) {
+            write("lease release", () -> {
+                delegate.releaseRefreshLease(lease);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public long getRefreshLeaseMillis() {
+        return delegate.getRefreshLeaseMillis();
+    }
+
+    @Override
+    public AutoCloseable subscribeToRotations(RotationListener listener) {
+        return delegate.subscribeToRotations(listener);
+    }
+
+    @Override
+    public byte[] getSignature(String id) {
+        return call("signature read", () -> delegate.getSignature(id), () -> null);
+    }
+
+    @Override
+    public void putSignature(String id, byte[] signature, int ttlSeconds) {
+        write("signature put", () -> {
+            delegate.putSignature(id, signature, ttlSeconds);
+            return null;
+        });
+    }
+
+    /**
+     * Prewarms the wrapped cache; a failure is logged and counted against the circuit rather than failing startup.
+     */
+    @Override
+    public void prewarm(int connections) {
+        call("prewarm", () -> {
+            delegate.prewarm(connections);
+            return null;
+        }, () -> null);
+    }
+
+    @Override
+    public int getTtlSeconds() {
+        return delegate.getTtlSeconds();
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Flushes queued writes for up to two seconds, then closes the wrapped cache.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Dropping {} queued Redis writes on shutdown", writer.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    private <T> T call(String operation, Supplier<T> action, Supplier<T> fallback) {
+        if (!circuitBreaker.allowRequest()) {
+            fallbacks.increment();
+            return fallback.get();
+        }
+        try {
+            T result = action.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            failures.increment();
+            fallbacks.increment();
+            LOGGER.warn("Redis {} failed; falling back: {}", operation, e.toString());
+            return fallback.get();
+        }
+    }
+
+    private void write(String operation, Supplier<?> action) {
+        try {
+            writer.execute(() -> call(operation, action, () -> {
+                droppedWrites.increment();
+                return null;
+            }));
+        } catch (RejectedExecutionException e) {
+            droppedWrites.increment();
+            LOGGER.warn("Redis write queue full or closed; dropping {}", operation);
+        }
+    }
+
+    private CachedCertificate fallback(CertificateSelector selector) {
+        CachedCertificate last = lastKnown.get(selector);
+        if (last == null) {
+            return null;
+        }
+        long expiresAt = Math.max(last.getExpiresAtMillis(), System.currentTimeMillis() + fallbackTtlMillis);
+        return new CachedCertificate(last.getBundle(), expiresAt);
+    }
+
+    /**
+     * Records {@code bundle}, normalized locally, as the last known one until the write reaches the wrapped cache.
+     */
+    private CachedCertificate remember(CertificateSelector selector, CertificateBundle bundle) {
+        CachedCertificate cached = new CachedCertificate(delegate.normalize(bundle),
+                System.currentTimeMillis() + delegate.getTtlSeconds() * 1000L);
+        lastKnown.put(selector, cached);
+        return cached;
+    }
+
+    /**
+     * Replaces the provisional last known bundle with what the wrapped cache stored, unless something newer was seen
+     * meanwhile; a fenced write that lost to a newer holder drops it instead.
+     */
+    private CachedCertificate adopt(CertificateSelector selector, CachedCertificate provisional,
+                                    CachedCertificate stored) {
+        if (stored != null) {
+            lastKnown.replace(selector, provisional, stored);
+        } else {
+            lastKnown.remove(selector, provisional);
+        }
+        return stored;
+    }
+
+    private static boolean isLocal(RefreshLease lease) {
+        return lease.getFencingToken() == LOCAL_FENCING_TOKEN && LOCAL_LEASE_OWNER.equals(lease.getOwner());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.docsigning.cache;
+
+import com.example.docsigning.metrics.SigningMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reuses signatures of documents that were already signed, keyed by (certificate fingerprint, SHA-256 of the
+ * document). Only deterministic engines may use it: for them the key fully determines the signature bytes.
+ *
+ * <p>Lookups go to a bounded in-process LRU first, then to the shared {@link CertificateCache} (Redis) when one is
+ * given, so a resubmission landing on another node is still served without a private-key operation. A rotated
+ * certificate has a new fingerprint and never matches the old entries; {@link #invalidate()} additionally drops the
+ * local tier, and Redis entries expire after {@code redisTtlSeconds}. Redis failures are treated as misses.
+ */
+public class SignatureCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignatureCache.class);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int maxLocalEntries;
+    private final CertificateCache redisCache;
+    private final int redisTtlSeconds;
+    private final Map<String, byte[]> local;
+    private final LongAdder localHits = SigningMetrics.shared().counter("signature_cache.local.hit");
+    private final LongAdder redisHits = SigningMetrics.shared().counter("signature_cache.redis.hit");
+    private final LongAdder misses = SigningMetrics.shared().counter("signature_cache.miss");
+
+    public SignatureCache(int maxLocalEntries) {
+        this(maxLocalEntries, null, 0);
+    }
+
+    /**
+     * @param maxLocalEntries signatures kept in process; {@code 0} disables the local tier
+     * @param redisCache      Redis tier, or {@code null} for a local-only cache
+     * @param redisTtlSeconds how long signatures are kept in Redis
+     */
+    public SignatureCache(int maxLocalEntries, CertificateCache redisCache, int redisTtlSeconds) {
+        this.maxLocalEntries = maxLocalEntries;
+        this.redisCache = redisTtlSeconds > 0 ? redisCache : null;
+        this.redisTtlSeconds = redisTtlSeconds;
+        this.local = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > SignatureCache.this.maxLocalEntries;
+            }
+        };
+        SigningMetrics.shared().gauge("signature_cache.hit_rate_percent", this::hitRatePercent);
+    }
+
+    /**
+     * Returns the cached signature of the document with {@code sha256Digest} under the certificate with
+     * {@code fingerprint}, or {@code null}.
+     */
+    public byte[] get(String fingerprint, byte[] sha256Digest) {
+        String id = id(fingerprint, sha256Digest);
+        byte[] signature = getLocal(id);
+        if (signature != null) {
+            localHits.increment();
+            return signature;
+        }
+        if (redisCache != null) {
+            try {
+                signature = redisCache.getSignature(id);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Signature cache read from Redis failed; signing instead", e);
+            }
+            if (signature != null) {
+                redisHits.increment();
+                putLocal(id, signature);
+                return signature;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String fingerprint, byte[] sha256Digest, byte[] signature) {
+        String id = id(fingerprint, sha256Digest);
+        putLocal(id, signature);
+        if (redisCache != null) {
+            try {
+                redisCache.putSignature(id, signature, redisTtlSeconds);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Signature cache write to Redis failed", e);
+            }
+        }
+    }
+
+    /**
+     * Drops the local tier, e.g. after a certificate rotation.
+     */
+    public void invalidate() {
+        synchronized (local) {
+            local.clear();
+        }
+    }
+
+    private byte[] getLocal(String id) {
+        if (maxLocalEntries <= 0) {
+            return null;
+        }
+        synchronized (local) {
+            return local.get(id);
+        }
+    }
+
+    private void putLocal(String id, byte[] signature) {
+        if (maxLocalEntries <= 0) {
+            return;
+        }
+        synchronized (local) {
+            local.put(id, signature);
+        }
+    }
+
+    private long hitRatePercent() {
+        long hits = localHits.sum() + redisHits.sum();
+        long lookups = hits + misses.sum();
+        return lookups == 0 ? 0 : hits * 100 / lookups;
+    }
+
+    private static String id(String fingerprint, byte[] sha256Digest) {
+        StringBuilder id = new StringBuilder(fingerprint.length() + 1 + sha256Digest.length * 2);
+        id.append(fingerprint).append(':');
+        for (byte b : sha256Digest) {
+            id.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+        }
+        return id.toString();
+    }
+}
@@ -33,14 +33,191 @@ public class AppConfig {
         return Integer.parseInt(env("REDIS_CERT_CACHE_TTL_SECONDS", "3600"));
     }
 
+    public boolean isRedisBinaryFormat() {
+        return !"text".equalsIgnoreCase(env("REDIS_CERT_CACHE_FORMAT", "binary"));
+    }
+
+    public boolean isRedisCompressionEnabled() {
+        return Boolean.parseBoolean(env("REDIS_CERT_CACHE_COMPRESSION", "false"));
+    }
+
+    public double getCertificateRefreshAheadFraction() {
+        return Double.parseDouble(env("CERT_REFRESH_AHEAD_FRACTION", "0.75"));
+    }
+
+    public long getCertificateFetchWaitTimeoutMillis() {
+        return Long.parseLong(env("CERT_FETCH_WAIT_TIMEOUT_MILLIS", "45000"));
+    }
+
+    public int getSigningPoolSize() {
+        return Integer.parseInt(env("SIGNING_POOL_SIZE", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    public long getMetricsReportIntervalSeconds() {
+        return Long.parseLong(env("METRICS_REPORT_INTERVAL_SECONDS", "60"));
+    }
+
+    public String getMetricsReporterClass() {
+        return env("METRICS_REPORTER_CLASS", "com.example.docsigning.metrics.Slf4jMetricsReporter");
+    }
+
     public int getHttpConnectTimeoutMillis() {
-        return (int) Duration.ofSeconds(15).toMillis();
+        return Integer.parseInt(env("DIGICERT_CONNECT_TIMEOUT_MILLIS", String.valueOf(Duration.ofSeconds(15).toMillis())));
     }
 
     public int getHttpReadTimeoutMillis() {
         return (int) Duration.ofSeconds(30).toMillis();
     }
 
+    public int getDigicertListTimeoutMillis() {
+        return Integer.parseInt(env("DIGICERT_LIST_TIMEOUT_MILLIS", String.valueOf(getHttpReadTimeoutMillis())));
+    }
+
+    public int getDigicertDownloadTimeoutMillis() {
+        return Integer.parseInt(env("DIGICERT_DOWNLOAD_TIMEOUT_MILLIS", String.valueOf(getHttpReadTimeoutMillis())));
+    }
+
+    public int getDigicertMaxAttempts() {
+        return Integer.parseInt(env("DIGICERT_MAX_ATTEMPTS", "3"));
+    }
+
+    public int getDigicertCircuitFailureThreshold() {
+        return Integer.parseInt(env("DIGICERT_CIRCUIT_FAILURE_THRESHOLD", "5"));
+    }
+
+    public long getDigicertCircuitOpenMillis() {
+        return Long.parseLong(env("DIGICERT_CIRCUIT_OPEN_MILLIS", "30000"));
+    }
+
+    public long getApiKeyCacheTtlMillis() {
+        return Long.parseLong(env("DIGICERT_API_KEY_CACHE_TTL_SECONDS", "300")) * 1000L;
+    }
+
+    public int getDigicertListPageSize() {
+        return Integer.parseInt(env("DIGICERT_LIST_PAGE_SIZE", "100"));
+    }
+
+    public int getDigicertMaxConnections() {
+        return Integer.parseInt(env("DIGICERT_HTTP_MAX_CONNECTIONS", "5"));
+    }
+
+    public int getRedisPrewarmConnections() {
+        return Integer.parseInt(env("REDIS_POOL_PREWARM_CONNECTIONS", "8"));
+    }
+
+    public int getWarmupIterations() {
+        return Integer.parseInt(env("STARTUP_WARMUP_ITERATIONS", "500"));
+    }
+
+    public int getHttpPort() {
+        return Integer.parseInt(env("HTTP_PORT", "8080"));
+    }
+
+    public int getHttpWorkerThreads() {
+        return Integer.parseInt(env("HTTP_WORKER_THREADS", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    public int getHttpQueueCapacity() {
+        return Integer.parseInt(env("HTTP_QUEUE_CAPACITY", "64"));
+    }
+
+    public int getHttpMaxBodyBytes() {
+        return Integer.parseInt(env("HTTP_MAX_BODY_BYTES", String.valueOf(10 * 1024 * 1024)));
+    }
+
+    public long getHttpRetryAfterSeconds() {
+        return Long.parseLong(env("HTTP_RETRY_AFTER_SECONDS", "1"));
+    }
+
+    public String getHttpDefaultCountry() {
+        return env("HTTP_DEFAULT_COUNTRY", "FR");
+    }
+
+    public int getSigningQueueCapacity() {
+        return Integer.parseInt(env("SIGNING_QUEUE_CAPACITY", "1024"));
+    }
+
+    public int getCertificateIoPoolSize() {
+        return Integer.parseInt(env("CERTIFICATE_IO_POOL_SIZE", "4"));
+    }
+
+    public long getCertificateRefreshLeaseMillis() {
+        return Long.parseLong(env("CERT_REFRESH_LEASE_MILLIS", "30000"));
+    }
+
+    public int getRedisPoolMaxTotal() {
+        return Integer.parseInt(env("REDIS_POOL_MAX_TOTAL", "16"));
+    }
+
+    public int getRedisPoolMinIdle() {
+        return Integer.parseInt(env("REDIS_POOL_MIN_IDLE", "2"));
+    }
+
+    public int getRedisConnectTimeoutMillis() {
+        return Integer.parseInt(env("REDIS_CONNECT_TIMEOUT_MILLIS", "500"));
+    }
+
+    public int getRedisSocketTimeoutMillis() {
+        return Integer.parseInt(env("REDIS_SOCKET_TIMEOUT_MILLIS", "300"));
+    }
+
+    public long getRedisPoolMaxWaitMillis() {
+        return Long.parseLong(env("REDIS_POOL_MAX_WAIT_MILLIS", "100"));
+    }
+
+    public int getRedisCircuitFailureThreshold() {
+        return Integer.parseInt(env("REDIS_CIRCUIT_FAILURE_THRESHOLD", "3"));
+    }
+
+    public long getRedisCircuitOpenMillis() {
+        return Long.parseLong(env("REDIS_CIRCUIT_OPEN_MILLIS", "5000"));
+    }
+
+    public long getRedisFallbackTtlMillis() {
+        return Long.parseLong(env("REDIS_FALLBACK_TTL_MILLIS", "60000"));
+    }
+
+    public int getRedisWriteQueueCapacity() {
+        return Integer.parseInt(env("REDIS_WRITE_QUEUE_CAPACITY", "256"));
+    }
+
+    public long getRedisClientSideCacheMaxAgeMillis() {
+        return Long.parseLong(env("REDIS_CLIENT_SIDE_CACHE_MAX_AGE_MILLIS", "0"));
+    }
+
+    /**
+     * JCA provider used by every signing engine, or {@code null} for the JVM's provider order.
+     */
+    public String getSigningProvider() {
+        return env("SIGNING_JCA_PROVIDER", null);
+    }
+
+    public String getSigningRsaEngine() {
+        return env("SIGNING_RSA_ENGINE", "SHA256withRSA");
+    }
+
+    public int getSignatureCacheMaxEntries() {
+        return Integer.parseInt(env("SIGNATURE_CACHE_MAX_ENTRIES", "0"));
+    }
+
+    public int getSignatureCacheRedisTtlSeconds() {
+        return Integer.parseInt(env("SIGNATURE_CACHE_REDIS_TTL_SECONDS", "0"));
+    }
+
+    /**
+     * Directory for encrypted certificate snapshots; unset disables them.
+     */
+    public String getCertificateSnapshotDir() {
+        return env("CERTIFICATE_SNAPSHOT_DIR", null);
+    }
+
+    /**
+     * Base64 AES key (16, 24 or 32 bytes) that encrypts certificate snapshots.
+     */
+    public String getCertificateSnapshotKey() {
+        return env("CERTIFICATE_SNAPSHOT_KEY", null);
+    }
+
     private String env(String key, String defaultValue) {
         String value = System.getenv(key);
         return value == null || value.trim().isEmpty() ? defaultValue : value;
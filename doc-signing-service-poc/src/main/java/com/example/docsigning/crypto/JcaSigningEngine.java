@@ -0,0 +1,133 @@
+package com.example.docsigning.crypto;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+
+/**
+ * {@link SigningEngine} backed by a JCA {@link Signature} algorithm, optionally from a named provider.
+ * Digest signing is available when the algorithm has a raw ({@code NONEwith...}) counterpart that signs
+ * {@code digestPrefix || digest} to the same result.
+ */
+public class JcaSigningEngine implements SigningEngine {
+
+    private final String name;
+    private final String algorithm;
+    private final String rawAlgorithm;
+    private final byte[] digestPrefix;
+    private final String provider;
+    private final boolean deterministic;
+    private final ThreadLocal<ThreadSignature> threadSignature;
+    private final ThreadLocal<ThreadSignature> threadRawSignature;
+
+    /**
+     * @param rawAlgorithm  JCA name used by {@link #signDigest}, or {@code null} when digests cannot be signed
+     * @param digestPrefix  bytes fed before the digest to the raw algorithm (may be empty)
+     * @param provider      JCA provider name, or {@code null} for the default provider order
+     * @param deterministic whether signatures depend only on key and document (see {@link #isDeterministic()})
+     */
+    public JcaSigningEngine(String name, String algorithm, String rawAlgorithm, byte[] digestPrefix, String provider,
+                            boolean deterministic) {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.rawAlgorithm = rawAlgorithm;
+        this.digestPrefix = digestPrefix == null ? new byte[0] : digestPrefix.clone();
+        this.provider = provider;
+        this.deterministic = deterministic;
+        this.threadSignature = ThreadLocal.withInitial(() -> new ThreadSignature(algorithm));
+        this.threadRawSignature = ThreadLocal.withInitial(() -> new ThreadSignature(rawAlgorithm));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Signature signer(PrivateKey privateKey) throws GeneralSecurityException {
+        return threadSignature.get().forKey(privateKey);
+    }
+
+    @Override
+    public void discard() {
+        threadSignature.get().reset();
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    @Override
+    public boolean supportsDigestSigning() {
+        return rawAlgorithm != null;
+    }
+
+    @Override
+    public byte[] signDigest(PrivateKey privateKey, byte[] sha256Digest) throws GeneralSecurityException {
+        if (rawAlgorithm == null) {
+            throw new UnsupportedOperationException(name + " cannot sign a precomputed digest");
+        }
+        ThreadSignature raw = threadRawSignature.get();
+        Signature signature = raw.forKey(privateKey);
+        try {
+            signature.update(digestPrefix);
+            signature.update(sha256Digest);
+            return signature.sign();
+        } catch (GeneralSecurityException | RuntimeException e) {
+            raw.reset();
+            throw e;
+        }
+    }
+
+    @Override
+    public Signature verifier(PublicKey publicKey) throws GeneralSecurityException {
+        Signature signature = newSignature(algorithm);
+        signature.initVerify(publicKey);
+        return signature;
+    }
+
+    /**
+     * Creates an uninitialized {@link Signature}; engines whose algorithm takes parameters override this to set them.
+     */
+    protected Signature newSignature(String jcaAlgorithm) throws GeneralSecurityException {
+        return provider == null ? Signature.getInstance(jcaAlgorithm) : Signature.getInstance(jcaAlgorithm, provider);
+    }
+
+    @Override
+    public String toString() {
+        return provider == null ? name : name + " (" + provider + ")";
+    }
+
+    /**
+     * Per-thread {@link Signature} instance. {@link Signature#sign()} resets the object to its
+     * initialized state, so {@code initSign} only runs again when the key changes.
+     */
+    private final class ThreadSignature {
+
+        private final String jcaAlgorithm;
+        private Signature signature;
+        private PrivateKey initializedKey;
+
+        ThreadSignature(String jcaAlgorithm) {
+            this.jcaAlgorithm = jcaAlgorithm;
+        }
+
+        Signature forKey(PrivateKey privateKey) throws GeneralSecurityException {
+            if (signature == null) {
+                signature = newSignature(jcaAlgorithm);
+            }
+            if (initializedKey != privateKey) {
+                initializedKey = null;
+                signature.initSign(privateKey);
+                initializedKey = privateKey;
+            }
+            return signature;
+        }
+
+        void reset() {
+            initializedKey = null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.docsigning.crypto;
+
+import com.example.docsigning.model.MerkleSignedDocument;
+
+import java.io.ByteArrayInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+
+/**
+ * Checks documents signed in a Merkle batch: the document must hash to the proof's leaf, the proof must lead to the
+ * signed root, and the root signature must verify against the public key the verifier was built with. The
+ * certificate carried in the result is not trusted, since whoever forged the signature could have embedded their own.
+ *
+ * <p>A certificate-bound root ({@link MerkleSignedDocument#CERT_BOUND_ROOT_TYPE}) is not a signature: anyone holding
+ * the certificate can compute it. {@link #verify} therefore rejects it; {@link #verifyAttestation} checks it for
+ * callers that only need integrity.
+ *
+ * <p>Documents of one batch share the root signature, so the last verified (root, signature) is remembered and
+ * checking the rest of the batch costs only hashing.
+ */
+public class MerkleBatchVerifier {
+
+    private final PublicKey trustedKey;
+    private final SigningEngines engines;
+    private volatile VerifiedRoot lastVerified;
+
+    /**
+     * @param trustedCertificate the certificate batches must be signed with, obtained out of band
+     */
+    public MerkleBatchVerifier(X509Certificate trustedCertificate) {
+        this(trustedCertificate.getPublicKey());
+    }
+
+    public MerkleBatchVerifier(PublicKey trustedKey) {
+        this(trustedKey, new SigningEngines());
+    }
+
+    public MerkleBatchVerifier(PublicKey trustedKey, SigningEngines engines) {
+        this.trustedKey = trustedKey;
+        this.engines = engines;
+    }
+
+    public boolean verify(MerkleSignedDocument signed) throws GeneralSecurityException {
+        return verify(signed.getOriginalDocument(), signed);
+    }
+
+    /**
+     * @param document the document as the caller holds it, which may differ from the one that was signed
+     */
+    public boolean verify(byte[] document, MerkleSignedDocument signed) throws GeneralSecurityException {
+        byte[] root = rootOf(document, signed);
+        return root != null && verifyRootSignature(root, signed);
+    }
+
+    public boolean verifyAttestation(MerkleSignedDocument signed) throws GeneralSecurityException {
+        return verifyAttestation(signed.getOriginalDocument(), signed);
+    }
+
+    /**
+     * Checks a certificate-bound root: the document belongs to the batch and the attestation binds its root to a
+     * certificate for the trusted key. This proves integrity only, not who produced the batch.
+     */
+    public boolean verifyAttestation(byte[] document, MerkleSignedDocument signed) throws GeneralSecurityException {
+        if (!MerkleSignedDocument.CERT_BOUND_ROOT_TYPE.equals(signed.getSignatureType())) {
+            return false;
+        }
+        byte[] root = rootOf(document, signed);
+        if (root == null || !trustedKey.equals(certificate(signed).getPublicKey())) {
+            return false;
+        }
+        MessageDigest sha256 = MerkleTree.newSha256();
+        sha256.update(root);
+        sha256.update(signed.getCertificate());
+        return MessageDigest.isEqual(sha256.digest(), signed.getSignature());
+    }
+
+    /**
+     * The root recomputed from {@code document} and the proof, or {@code null} when it is not the signed root.
+     */
+    private static byte[] rootOf(byte[] document, MerkleSignedDocument signed) {
+        byte[] digest = MerkleTree.newSha256().digest(document);
+        byte[] root = signed.getProof().computeRoot(digest);
+        return MessageDigest.isEqual(root, signed.getRoot()) ? root : null;
+    }
+
+    private boolean verifyRootSignature(byte[] root, MerkleSignedDocument signed) throws GeneralSecurityException {
+        VerifiedRoot verified = lastVerified;
+        if (verified != null && verified.matches(root, signed)) {
+            return true;
+        }
+
+        SigningEngine engine = engines.byName(signed.getSignatureType());
+        if (engine == null) {
+            return false;
+        }
+        Signature verifier = engine.verifier(trustedKey);
+        verifier.update(root);
+        boolean valid = verifier.verify(signed.getSignature());
+        if (valid) {
+            lastVerified = new VerifiedRoot(root, signed);
+        }
+        return valid;
+    }
+
+    private static X509Certificate certificate(MerkleSignedDocument signed) throws GeneralSecurityException {
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(signed.getCertificate()));
+    }
+
+    private static final class VerifiedRoot {
+
+        private final byte[] root;
+        private final byte[] signature;
+        private final String signatureType;
+
+        VerifiedRoot(byte[] root, MerkleSignedDocument signed) {
+            this.root = root;
+            this.signature = signed.getSignature().clone();
+            this.signatureType = signed.getSignatureType();
+        }
+
+        boolean matches(byte[] candidateRoot, MerkleSignedDocument signed) {
+            return Arrays.equals(root, candidateRoot)
+                    && Arrays.equals(signature, signed.getSignature())
+                    && signatureType.equals(signed.getSignatureType());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.docsigning.crypto;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inclusion proof of one document in a {@link MerkleTree}: the sibling hashes met on the way from its leaf to the
+ * root, and on which side each sibling sits. Levels where the node had no sibling contribute nothing.
+ */
+public final class MerkleProof {
+
+    private final int leafIndex;
+    private final int leafCount;
+    private final List<byte[]> siblings;
+    private final long siblingOnLeft;
+
+    /**
+     * @param siblingOnLeft bit {@code i} set when {@code siblings.get(i)} is the left operand
+     */
+    public MerkleProof(int leafIndex, int leafCount, List<byte[]> siblings, long siblingOnLeft) {
+        if (siblings.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Proof of " + siblings.size() + " levels is too deep");
+        }
+        this.leafIndex = leafIndex;
+        this.leafCount = leafCount;
+        this.siblings = Collections.unmodifiableList(new ArrayList<>(siblings));
+        this.siblingOnLeft = siblingOnLeft;
+    }
+
+    public int getLeafIndex() {
+        return leafIndex;
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public List<byte[]> getSiblings() {
+        return siblings;
+    }
+
+    public boolean isSiblingOnLeft(int level) {
+        return (siblingOnLeft & (1L << level)) != 0;
+    }
+
+    /**
+     * The root this proof leads to when the document's SHA-256 digest is {@code documentDigest}.
+     */
+    public byte[] computeRoot(byte[] documentDigest) {
+        MessageDigest sha256 = MerkleTree.newSha256();
+        byte[] hash = MerkleTree.leafHash(sha256, documentDigest);
+        for (int level = 0; level < siblings.size(); level++) {
+            byte[] sibling = siblings.get(level);
+            hash = isSiblingOnLeft(level)
+                    ? MerkleTree.nodeHash(sha256, sibling, hash)
+                    : MerkleTree.nodeHash(sha256, hash, sibling);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.docsigning.crypto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SHA-256 Merkle tree over document digests, with domain-separated hashing so a leaf can never be passed off as an
+ * inner node: {@code leaf = SHA-256(0x00 || documentDigest)}, {@code node = SHA-256(0x01 || left || right)}.
+ * A level with an odd number of nodes carries its last node up unchanged rather than duplicating it, so two
+ * different document lists never share a root.
+ */
+public final class MerkleTree {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    /** Level 0 holds the leaf hashes; the last level holds only the root. */
+    private final List<byte[][]> levels = new ArrayList<>();
+
+    /**
+     * @param documentDigests SHA-256 digest of each document, in batch order
+     */
+    public MerkleTree(List<byte[]> documentDigests) {
+        if (documentDigests.isEmpty()) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one document");
+        }
+        MessageDigest sha256 = newSha256();
+        byte[][] level = new byte[documentDigests.size()][];
+        for (int i = 0; i < level.length; i++) {
+            level[i] = leafHash(sha256, documentDigests.get(i));
+        }
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parent.length; i++) {
+                int left = 2 * i;
+                parent[i] = left + 1 < level.length ? nodeHash(sha256, level[left], level[left + 1]) : level[left];
+            }
+            levels.add(parent);
+            level = parent;
+        }
+    }
+
+    public byte[] getRoot() {
+        return levels.get(levels.size() - 1)[0].clone();
+    }
+
+    public int getLeafCount() {
+        return levels.get(0).length;
+    }
+
+    /**
+     * Sibling hashes from the leaf at {@code leafIndex} up to the root.
+     */
+    public MerkleProof proof(int leafIndex) {
+        if (leafIndex < 0 || leafIndex >= getLeafCount()) {
+            throw new IndexOutOfBoundsException("Leaf " + leafIndex + " of " + getLeafCount());
+        }
+        List<byte[]> siblings = new ArrayList<>(levels.size());
+        long siblingOnLeft = 0;
+        int index = leafIndex;
+        for (int depth = 0; depth < levels.size() - 1; depth++) {
+            byte[][] level = levels.get(depth);
+            int sibling = index ^ 1;
+            if (sibling < level.length) {
+                if (sibling < index) {
+                    siblingOnLeft |= 1L << siblings.size();
+                }
+                siblings.add(level[sibling]);
+            }
+            index /= 2;
+        }
+        return new MerkleProof(leafIndex, getLeafCount(), siblings, siblingOnLeft);
+    }
+
+    static byte[] leafHash(MessageDigest sha256, byte[] documentDigest) {
+        sha256.update(LEAF_PREFIX);
+        sha256.update(documentDigest);
+        return sha256.digest();
+    }
+
+    static byte[] nodeHash(MessageDigest sha256, byte[] left, byte[] right) {
+        sha256.update(NODE_PREFIX);
+        sha256.update(left);
+        sha256.update(right);
+        return sha256.digest();
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.docsigning.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Minimal PEM armor handling: extracts the DER body of the first block carrying a given label, and armors DER back.
+ */
+public final class PemDecoder {
+
+    public static final String CERTIFICATE = "CERTIFICATE";
+    public static final String PRIVATE_KEY = "PRIVATE KEY";
+    public static final String RSA_PRIVATE_KEY = "RSA PRIVATE KEY";
+
+    private PemDecoder() {
+    }
+
+    public static boolean isPem(byte[] bytes) {
+        return indexOf(bytes, "-----BEGIN ") >= 0;
+    }
+
+    /**
+     * Returns the DER bytes of the first {@code label} block in {@code pem}, or {@code null} if there is none.
+     */
+    public static byte[] decode(byte[] pem, String label) {
+        String text = new String(pem, StandardCharsets.US_ASCII);
+        String begin = "-----BEGIN " + label + "-----";
+        String end = "-----END " + label + "-----";
+        int start = text.indexOf(begin);
+        if (start < 0) {
+            return null;
+        }
+        int stop = text.indexOf(end, start + begin.length());
+        if (stop < 0) {
+            throw new IllegalArgumentException("Unterminated PEM block: " + label);
+        }
+        return Base64.getMimeDecoder().decode(text.substring(start + begin.length(), stop));
+    }
+
+    /**
+     * Returns the DER bytes of every {@code label} block in {@code pem}, in order.
+     */
+    public static List<byte[]> decodeAll(byte[] pem, String label) {
+        String text = new String(pem, StandardCharsets.US_ASCII);
+        String begin = "-----BEGIN " + label + "-----";
+        String end = "-----END " + label + "-----";
+        List<byte[]> blocks = new ArrayList<>(2);
+        int start = text.indexOf(begin);
+        while (start >= 0) {
+            int stop = text.indexOf(end, start + begin.length());
+            if (stop < 0) {
+                throw new IllegalArgumentException("Unterminated PEM block: " + label);
+            }
+            blocks.add(Base64.getMimeDecoder().decode(text.substring(start + begin.length(), stop)));
+            start = text.indexOf(begin, stop + end.length());
+        }
+        return blocks;
+    }
+
+    /**
+     * Wraps {@code der} in a {@code label} block with 64-character Base64 lines.
+     */
+    public static byte[] encode(byte[] der, String label) {
+        String body = Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der);
+        return ("-----BEGIN " + label + "-----\n" + body + "\n-----END " + label + "-----\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static int indexOf(byte[] bytes, String marker) {
+        byte[] needle = marker.getBytes(StandardCharsets.US_ASCII);
+        outer:
+        for (int i = 0; i <= bytes.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (bytes[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
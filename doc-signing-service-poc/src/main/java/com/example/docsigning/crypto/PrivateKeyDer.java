@@ -0,0 +1,74 @@
+package com.example.docsigning.crypto;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Normalizes private key files to PKCS#8 DER, the only form the signer parses.
+ */
+public final class PrivateKeyDer {
+
+    /** AlgorithmIdentifier for rsaEncryption (1.2.840.113549.1.1.1) with NULL parameters. */
+    private static final byte[] RSA_ALGORITHM_IDENTIFIER = {
+            0x30, 0x0d, 0x06, 0x09, 0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x01, 0x01, 0x05, 0x00
+    };
+    private static final byte[] VERSION_ZERO = {0x02, 0x01, 0x00};
+
+    private PrivateKeyDer() {
+    }
+
+    /**
+     * Returns PKCS#8 DER for a {@code PRIVATE KEY} or {@code RSA PRIVATE KEY} PEM file. DER input and PEM with any
+     * other label (e.g. encrypted or EC keys) are returned unchanged.
+     */
+    public static byte[] toPkcs8(byte[] keyBytes) {
+        if (!PemDecoder.isPem(keyBytes)) {
+            return keyBytes;
+        }
+        byte[] pkcs8 = PemDecoder.decode(keyBytes, PemDecoder.PRIVATE_KEY);
+        if (pkcs8 != null) {
+            return pkcs8;
+        }
+        byte[] pkcs1 = PemDecoder.decode(keyBytes, PemDecoder.RSA_PRIVATE_KEY);
+        return pkcs1 == null ? keyBytes : pkcs1ToPkcs8(pkcs1);
+    }
+
+    /**
+     * Wraps a PKCS#1 {@code RSAPrivateKey} in a PKCS#8 {@code PrivateKeyInfo}.
+     */
+    public static byte[] pkcs1ToPkcs8(byte[] rsaPrivateKey) {
+        ByteArrayOutputStream octetString = new ByteArrayOutputStream(rsaPrivateKey.length + 6);
+        writeTagged(octetString, 0x04, rsaPrivateKey);
+
+        byte[] wrapped = octetString.toByteArray();
+        ByteArrayOutputStream content = new ByteArrayOutputStream(
+                VERSION_ZERO.length + RSA_ALGORITHM_IDENTIFIER.length + wrapped.length);
+        content.write(VERSION_ZERO, 0, VERSION_ZERO.length);
+        content.write(RSA_ALGORITHM_IDENTIFIER, 0, RSA_ALGORITHM_IDENTIFIER.length);
+        content.write(wrapped, 0, wrapped.length);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.size() + 6);
+        writeTagged(out, 0x30, content.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static void writeTagged(ByteArrayOutputStream out, int tag, byte[] value) {
+        out.write(tag);
+        int length = value.length;
+        if (length < 0x80) {
+            out.write(length);
+        } else if (length <= 0xff) {
+            out.write(0x81);
+            out.write(length);
+        } else if (length <= 0xffff) {
+            out.write(0x82);
+            out.write(length >> 8);
+            out.write(length);
+        } else {
+            out.write(0x83);
+            out.write(length >> 16);
+            out.write(length >> 8);
+            out.write(length);
+        }
+        out.write(value, 0, value.length);
+    }
+}
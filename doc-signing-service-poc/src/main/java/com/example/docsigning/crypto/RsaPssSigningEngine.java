@@ -0,0 +1,27 @@
+package com.example.docsigning.crypto;
+
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+
+/**
+ * RSASSA-PSS with SHA-256, MGF1/SHA-256 and a 32-byte salt. PSS is randomized, so the same document never signs to
+ * the same bytes twice, and the JDK offers no raw variant for signing precomputed digests.
+ */
+public class RsaPssSigningEngine extends JcaSigningEngine {
+
+    static final PSSParameterSpec SHA256_PARAMETERS =
+            new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, PSSParameterSpec.TRAILER_FIELD_BC);
+
+    public RsaPssSigningEngine(String provider) {
+        super(SigningEngines.RSA_PSS, "RSASSA-PSS", null, null, provider, false);
+    }
+
+    @Override
+    protected Signature newSignature(String jcaAlgorithm) throws GeneralSecurityException {
+        Signature signature = super.newSignature(jcaAlgorithm);
+        signature.setParameter(SHA256_PARAMETERS);
+        return signature;
+    }
+}
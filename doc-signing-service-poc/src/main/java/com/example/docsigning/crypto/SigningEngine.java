@@ -0,0 +1,59 @@
+package com.example.docsigning.crypto;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+
+/**
+ * Signature algorithm for one kind of private key. {@link SigningEngines} picks the engine from the key algorithm of
+ * the signing certificate.
+ *
+ * <p>Engines are shared across threads and hand each thread its own {@link Signature}, so {@code initSign} only runs
+ * again when that thread sees a different key.
+ */
+public interface SigningEngine {
+
+    /**
+     * Signature type reported with every signature, e.g. {@code SHA256withECDSA}; also the name the engine is
+     * looked up by.
+     */
+    String getName();
+
+    /**
+     * Returns the calling thread's {@link Signature}, initialized for signing with {@code privateKey}. Callers feed
+     * the document and call {@link Signature#sign()}, which leaves the instance ready for the next document.
+     */
+    Signature signer(PrivateKey privateKey) throws GeneralSecurityException;
+
+    /**
+     * Forces a fresh {@code initSign} on the calling thread's next use; called when a signing attempt was abandoned
+     * midway and the thread's {@link Signature} may hold partial input.
+     */
+    void discard();
+
+    /**
+     * Whether the same key and document always produce the same signature bytes, which makes signatures safe to
+     * cache and reuse. PKCS#1 v1.5 RSA and Ed25519 are deterministic; RSA-PSS and the JDK's ECDSA are randomized.
+     */
+    boolean isDeterministic();
+
+    /**
+     * Whether {@link #signDigest} is available. Algorithms that hash internally with their own construction
+     * (RSA-PSS in the JDK, Ed25519) cannot sign a digest computed by the caller.
+     */
+    boolean supportsDigestSigning();
+
+    /**
+     * Signs a SHA-256 digest computed by the caller, producing the same signature {@link #signer} would produce over
+     * the original document.
+     *
+     * @throws UnsupportedOperationException if {@link #supportsDigestSigning()} is {@code false}
+     */
+    byte[] signDigest(PrivateKey privateKey, byte[] sha256Digest) throws GeneralSecurityException;
+
+    /**
+     * Returns a new {@link Signature} initialized to verify this engine's signatures with {@code publicKey}.
+     */
+    Signature verifier(PublicKey publicKey) throws GeneralSecurityException;
+}
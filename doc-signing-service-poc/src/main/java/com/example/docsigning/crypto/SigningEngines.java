@@ -0,0 +1,147 @@
+package com.example.docsigning.crypto;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.Security;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The signing engines available to the signer, all bound to one JCA provider. The engine for a key is chosen from
+ * its algorithm: EC keys sign with ECDSA, Ed25519 keys with Ed25519, and RSA keys with whichever RSA engine was
+ * configured (PKCS#1 v1.5 unless told otherwise).
+ *
+ * <p>Elliptic-curve private-key operations are far cheaper than RSA-2048 ones, so a P-256 or Ed25519 certificate
+ * signs several times as many documents per core. Ed25519 is only offered when the provider implements it (Java 15+
+ * for the default providers); on older JVMs Ed25519 keys are rejected like any other unsupported key type.
+ */
+public class SigningEngines {
+
+    public static final String RSA = "SHA256withRSA";
+    public static final String RSA_PSS = "RSASSA-PSS";
+    public static final String ECDSA_P256 = "SHA256withECDSA";
+    public static final String ED25519 = "Ed25519";
+
+    /**
+     * DER prefix of a PKCS#1 v1.5 DigestInfo for SHA-256; the 32 digest bytes follow it.
+     */
+    private static final byte[] SHA256_DIGEST_INFO_PREFIX = {
+            0x30, 0x31, 0x30, 0x0d, 0x06, 0x09, 0x60, (byte) 0x86, 0x48, 0x01, 0x65, 0x03, 0x04, 0x02, 0x01, 0x05, 0x00, 0x04, 0x20
+    };
+
+    private final Map<String, SigningEngine> byName;
+    private final SigningEngine rsaEngine;
+
+    public SigningEngines() {
+        this(null, RSA);
+    }
+
+    /**
+     * @param provider      JCA provider every engine uses, or {@code null} for the default provider order
+     * @param rsaEngineName engine for RSA keys: {@link #RSA} or {@link #RSA_PSS}
+     */
+    public SigningEngines(String provider, String rsaEngineName) {
+        if (provider != null && Security.getProvider(provider) == null) {
+            throw new IllegalArgumentException("JCA provider " + provider + " is not installed");
+        }
+        Map<String, SigningEngine> engines = new HashMap<>();
+        register(engines, rsa(provider));
+        register(engines, rsaPss(provider));
+        register(engines, ecdsaP256(provider));
+        if (isAvailable(ED25519, provider)) {
+            register(engines, ed25519(provider));
+        }
+        this.byName = Collections.unmodifiableMap(engines);
+
+        if (!RSA.equals(rsaEngineName) && !RSA_PSS.equals(rsaEngineName)) {
+            throw new IllegalArgumentException("RSA engine must be " + RSA + " or " + RSA_PSS + ", got " + rsaEngineName);
+        }
+        this.rsaEngine = byName.get(rsaEngineName);
+    }
+
+    /**
+     * PKCS#1 v1.5 RSA with SHA-256. Deterministic; digests are signed raw behind a SHA-256 DigestInfo.
+     */
+    public static SigningEngine rsa(String provider) {
+        return new JcaSigningEngine(RSA, "SHA256withRSA", "NONEwithRSA", SHA256_DIGEST_INFO_PREFIX, provider, true);
+    }
+
+    public static SigningEngine rsaPss(String provider) {
+        return new RsaPssSigningEngine(provider);
+    }
+
+    /**
+     * ECDSA with SHA-256, meant for P-256 keys where the hash matches the curve strength. ECDSA signs the hash
+     * itself, so a precomputed digest goes straight to {@code NONEwithECDSA}. Signatures are DER encoded.
+     */
+    public static SigningEngine ecdsaP256(String provider) {
+        return new JcaSigningEngine(ECDSA_P256, "SHA256withECDSA", "NONEwithECDSA", null, provider, false);
+    }
+
+    /**
+     * Pure Ed25519 (Java 15+). The algorithm hashes the whole message twice, so streamed documents are buffered
+     * in memory until {@code sign()}, and precomputed digests cannot be signed.
+     */
+    public static SigningEngine ed25519(String provider) {
+        return new JcaSigningEngine(ED25519, "Ed25519", null, null, provider, true);
+    }
+
+    /**
+     * Returns the engine for {@code privateKey}'s algorithm.
+     *
+     * @throws IllegalStateException if no engine signs with keys of that algorithm
+     */
+    public SigningEngine forKey(PrivateKey privateKey) {
+        String keyAlgorithm = privateKey.getAlgorithm();
+        switch (keyAlgorithm) {
+            case "RSA":
+                return rsaEngine;
+            case "RSASSA-PSS":
+                return byName.get(RSA_PSS);
+            case "EC":
+                return byName.get(ECDSA_P256);
+            case "Ed25519":
+            case "EdDSA":
+                SigningEngine ed25519 = byName.get(ED25519);
+                if (ed25519 == null) {
+                    throw new IllegalStateException("No signing engine for Ed25519 keys: the JCA provider does not "
+                            + "implement Ed25519 (Java 15+)");
+                }
+                return ed25519;
+            default:
+                throw new IllegalStateException("No signing engine for " + keyAlgorithm + " keys");
+        }
+    }
+
+    /**
+     * Returns the engine whose {@link SigningEngine#getName()} is {@code name}, or {@code null} if there is none
+     * (e.g. for the certificate-bound digest types).
+     */
+    public SigningEngine byName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Whether {@code provider} (or, for {@code null}, any installed provider) implements the JCA signature
+     * {@code algorithm}.
+     */
+    public static boolean isAvailable(String algorithm, String provider) {
+        try {
+            if (provider == null) {
+                Signature.getInstance(algorithm);
+            } else {
+                Signature.getInstance(algorithm, provider);
+            }
+            return true;
+        } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
+            return false;
+        }
+    }
+
+    private static void register(Map<String, SigningEngine> engines, SigningEngine engine) {
+        engines.put(engine.getName(), engine);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.docsigning.digicert;
+
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.DigiCertCertificateSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Indexes the DigiCert certificate list by country, organization and status so that choosing a certificate
+ * for a {@link CertificateSelector} is a map lookup. Resolved selections are memoized; the whole index is
+ * rebuilt from DigiCert once it is older than {@code maxIndexAgeMillis}.
+ *
+ * <p>Without a current index, the {@link CertificateSelector#DEFAULT default} selection streams the list and stops at
+ * the first issued FR certificate, so a starting node does not page through the whole account; that answer is kept
+ * for {@code maxIndexAgeMillis} as well. A pass that reaches the end of the list becomes the index.
+ */
+public class CertificateRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificateRegistry.class);
+    private static final String ISSUED = "issued";
+
+    private final DigiCertClient digicertApiClient;
+    private final long maxIndexAgeMillis;
+    private volatile Index index;
+    private volatile StreamedSelection defaultSelection;
+
+    public CertificateRegistry(DigiCertClient digicertApiClient, long maxIndexAgeMillis) {
+        this.digicertApiClient = digicertApiClient;
+        this.maxIndexAgeMillis = maxIndexAgeMillis;
+    }
+
+    public DigiCertCertificateSummary select(CertificateSelector selector) throws IOException {
+        if (selector.isDefault() && !isFresh(index)) {
+            DigiCertCertificateSummary streamed = streamDefaultSelection();
+            if (streamed != null) {
+                return streamed;
+            }
+        }
+        Index current = currentIndex();
+        DigiCertCertificateSummary selected = current.selections.get(selector);
+        if (selected == null) {
+            selected = current.resolve(selector);
+            current.selections.put(selector, selected);
+            LOGGER.info("Selected DigiCert certificate ID {} for {}", selected.getId(), selector);
+        }
+        return selected;
+    }
+
+    /**
+     * Whether any certificate can be selected for {@code selector}, checked against the index without remembering
+     * the selection. The default selection always has one as long as the account lists any certificate.
+     */
+    public boolean hasMatch(CertificateSelector selector) throws IOException {
+        return selector.isDefault() || currentIndex().firstMatch(selector) != null;
+    }
+
+    /**
+     * Drops the index so the next selection re-lists certificates from DigiCert.
+     */
+    public void invalidate() {
+        index = null;
+        defaultSelection = null;
+    }
+
+    private Index currentIndex() throws IOException {
+        Index current = index;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (!isFresh(current)) {
+                current = new Index(digicertApiClient.listCertificates());
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * The first issued FR certificate, found by streaming the list, or {@code null} when the index should answer
+     * instead: either it is current, or this pass read the whole list and installed it.
+     */
+    private synchronized DigiCertCertificateSummary streamDefaultSelection() throws IOException {
+        if (isFresh(index)) {
+            return null;
+        }
+        StreamedSelection streamed = defaultSelection;
+        if (streamed != null && System.currentTimeMillis() - streamed.selectedAtMillis < maxIndexAgeMillis) {
+            return streamed.certificate;
+        }
+
+        List<DigiCertCertificateSummary> seen = new ArrayList<>();
+        DigiCertCertificateSummary[] found = new DigiCertCertificateSummary[1];
+        digicertApiClient.forEachCertificate(certificate -> {
+            seen.add(certificate);
+            if (CertificateSelector.DEFAULT.matches(certificate) && ISSUED.equalsIgnoreCase(certificate.getStatus())) {
+                found[0] = certificate;
+                return false;
+            }
+            return true;
+        });
+        if (found[0] == null) {
+            index = new Index(seen);
+            return null;
+        }
+        defaultSelection = new StreamedSelection(found[0]);
+        LOGGER.info("Selected DigiCert certificate ID {} for {} after reading {} certificates",
+                found[0].getId(), CertificateSelector.DEFAULT, seen.size());
+        return found[0];
+    }
+
+    private boolean isFresh(Index current) {
+        return current != null && System.currentTimeMillis() - current.loadedAtMillis < maxIndexAgeMillis;
+    }
+
+    private static final class StreamedSelection {
+
+        private final long selectedAtMillis = System.currentTimeMillis();
+        private final DigiCertCertificateSummary certificate;
+
+        StreamedSelection(DigiCertCertificateSummary certificate) {
+            this.certificate = certificate;
+        }
+    }
+
+    private static final class Index {
+
+        private final long loadedAtMillis = System.currentTimeMillis();
+        private final List<DigiCertCertificateSummary> all;
+        private final Map<String, List<DigiCertCertificateSummary>> byCountry;
+        private final Map<String, List<DigiCertCertificateSummary>> byOrganization;
+        private final Map<String, List<DigiCertCertificateSummary>> byStatus;
+        private final Map<CertificateSelector, DigiCertCertificateSummary> selections = new ConcurrentHashMap<>();
+
+        Index(List<DigiCertCertificateSummary> certificates) {
+            this.all = certificates;
+            this.byCountry = groupBy(certificates, DigiCertCertificateSummary::getCountry);
+            this.byOrganization = groupBy(certificates, DigiCertCertificateSummary::getOrganization);
+            this.byStatus = groupBy(certificates, DigiCertCertificateSummary::getStatus);
+            LOGGER.info("Indexed {} DigiCert certificates ({} countries, {} organizations)",
+                    certificates.size(), byCountry.size(), byOrganization.size());
+        }
+
+        DigiCertCertificateSummary resolve(CertificateSelector selector) throws IOException {
+            DigiCertCertificateSummary match = firstMatch(selector);
+            if (match != null) {
+                return match;
+            }
+            if (selector.isDefault()) {
+                List<DigiCertCertificateSummary> issued = lookup(byStatus, ISSUED);
+                if (!issued.isEmpty()) {
+                    LOGGER.info("No FR certificate found; using fallback certificate ID {} with status {}",
+                            issued.get(0).getId(), issued.get(0).getStatus());
+                    return issued.get(0);
+                }
+                if (!all.isEmpty()) {
+                    LOGGER.info("No FR/issued filter match found; selecting first available certificate ID {}", all.get(0).getId());
+                    return all.get(0);
+                }
+                throw new IOException("No certificates returned by DigiCert List Certificates API.");
+            }
+            throw new NoMatchingCertificateException(selector);
+        }
+
+        /**
+         * Scans the narrowest index bucket for the selector, preferring issued certificates.
+         */
+        private DigiCertCertificateSummary firstMatch(CertificateSelector selector) {
+            List<DigiCertCertificateSummary> candidates = all;
+            if (selector.getCountry() != null) {
+                candidates = narrower(candidates, lookup(byCountry, selector.getCountry()));
+            }
+            if (selector.getOrganization() != null) {
+                candidates = narrower(candidates, lookup(byOrganization, selector.getOrganization()));
+            }
+            if (selector.getStatus() != null) {
+                candidates = narrower(candidates, lookup(byStatus, selector.getStatus()));
+            }
+
+            DigiCertCertificateSummary firstMatch = null;
+            for (DigiCertCertificateSummary candidate : candidates) {
+                if (selector.matches(candidate)) {
+                    if (ISSUED.equalsIgnoreCase(candidate.getStatus())) {
+                        return candidate;
+                    }
+                    if (firstMatch == null) {
+                        firstMatch = candidate;
+                    }
+                }
+            }
+            return firstMatch;
+        }
+
+        private static List<DigiCertCertificateSummary> narrower(List<DigiCertCertificateSummary> a,
+                                                                 List<DigiCertCertificateSummary> b) {
+            return b.size() < a.size() ? b : a;
+        }
+
+        private static List<DigiCertCertificateSummary> lookup(Map<String, List<DigiCertCertificateSummary>> index, String value) {
+            List<DigiCertCertificateSummary> found = index.get(value.toLowerCase(Locale.ROOT));
+            return found == null ? Collections.<DigiCertCertificateSummary>emptyList() : found;
+        }
+
+        private static Map<String, List<DigiCertCertificateSummary>> groupBy(
+                List<DigiCertCertificateSummary> certificates, Function<DigiCertCertificateSummary, String> attribute) {
+            Map<String, List<DigiCertCertificateSummary>> grouped = new HashMap<>();
+            for (DigiCertCertificateSummary certificate : certificates) {
+                String value = attribute.apply(certificate);
+                if (value != null) {
+                    grouped.computeIfAbsent(value.toLowerCase(Locale.ROOT), ignored -> new ArrayList<>()).add(certificate);
+                }
+            }
+            return grouped;
+        }
+    }
+}
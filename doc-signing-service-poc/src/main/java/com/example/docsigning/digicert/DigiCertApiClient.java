@@ -1,122 +1,205 @@
 package com.example.docsigning.digicert;
 
+import com.example.docsigning.aws.ApiKeyProvider;
+import com.example.docsigning.metrics.LatencyHistogram;
+import com.example.docsigning.metrics.SigningMetrics;
 import com.example.docsigning.model.DigiCertCertificateSummary;
-import com.example.docsigning.model.ListCertificatesResponse;
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.Map;
 
-public class DigiCertApiClient {
+public class DigiCertApiClient implements DigiCertClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DigiCertApiClient.class);
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final int DEFAULT_CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_CIRCUIT_OPEN_MILLIS = 30_000L;
+    private static final long DEFAULT_BASE_BACKOFF_MILLIS = 200L;
+    private static final long DEFAULT_MAX_BACKOFF_MILLIS = 5_000L;
+    private static final int DEFAULT_PAGE_SIZE = 100;
 
     private final String baseUrl;
-    private final String apiKey;
-    private final int connectTimeoutMillis;
-    private final int readTimeoutMillis;
+    private final ApiKeyProvider apiKeyProvider;
+    private final DigiCertHttpTransport transport;
+    private final HttpEndpointPolicy listPolicy;
+    private final HttpEndpointPolicy downloadPolicy;
+    private final int pageSize;
     private final ObjectMapper objectMapper;
+    private final LatencyHistogram listLatency = SigningMetrics.shared().histogram(SigningMetrics.DIGICERT_LIST);
+    private final LatencyHistogram downloadLatency = SigningMetrics.shared().histogram(SigningMetrics.DIGICERT_DOWNLOAD);
 
     public DigiCertApiClient(String baseUrl, String apiKey, int connectTimeoutMillis, int readTimeoutMillis) {
-        this.baseUrl = baseUrl;
-        this.apiKey = apiKey;
-        this.connectTimeoutMillis = connectTimeoutMillis;
-        this.readTimeoutMillis = readTimeoutMillis;
-        this.objectMapper = new ObjectMapper();
+        this(baseUrl, apiKey,
+                new DigiCertHttpTransport(
+                        new CircuitBreaker("digicert", DEFAULT_CIRCUIT_FAILURE_THRESHOLD, DEFAULT_CIRCUIT_OPEN_MILLIS),
+                        DEFAULT_BASE_BACKOFF_MILLIS,
+                        DEFAULT_MAX_BACKOFF_MILLIS),
+                new HttpEndpointPolicy(connectTimeoutMillis, readTimeoutMillis, DEFAULT_MAX_ATTEMPTS),
+                new HttpEndpointPolicy(connectTimeoutMillis, readTimeoutMillis, DEFAULT_MAX_ATTEMPTS));
     }
 
-    public DigiCertCertificateSummary selectCertificate() throws IOException {
-        List<DigiCertCertificateSummary> certificates = listCertificates();
-        Optional<DigiCertCertificateSummary> franceCertificate = certificates.stream()
-                .filter(c -> c.getCountry() != null && "FR".equalsIgnoreCase(c.getCountry()))
-                .findFirst();
-        if (franceCertificate.isPresent()) {
-            LOGGER.info("Selected DigiCert certificate ID {} (country=FR)", franceCertificate.get().getId());
-            return franceCertificate.get();
-        }
-
-        Optional<DigiCertCertificateSummary> fallback = certificates.stream()
-                .filter(c -> c.getStatus() != null && "issued".equalsIgnoreCase(c.getStatus()))
-                .findFirst();
+    public DigiCertApiClient(String baseUrl,
+                             String apiKey,
+                             DigiCertHttpTransport transport,
+                             HttpEndpointPolicy listPolicy,
+                             HttpEndpointPolicy downloadPolicy) {
+        this(baseUrl, apiKey, transport, listPolicy, downloadPolicy, DEFAULT_PAGE_SIZE);
+    }
 
-        if (fallback.isPresent()) {
-            LOGGER.info("No FR certificate found; using fallback certificate ID {} with status {}",
-                    fallback.get().getId(), fallback.get().getStatus());
-            return fallback.get();
-        }
+    public DigiCertApiClient(String baseUrl,
+                             String apiKey,
+                             DigiCertHttpTransport transport,
+                             HttpEndpointPolicy listPolicy,
+                             HttpEndpointPolicy downloadPolicy,
+                             int pageSize) {
+        this(baseUrl, () -> apiKey, transport, listPolicy, downloadPolicy, pageSize);
+    }
 
-        if (certificates.isEmpty()) {
-            throw new IOException("No certificates returned by DigiCert List Certificates API.");
+    /**
+     * The key is read from {@code apiKeyProvider} on every request, so a caching provider lets the key rotate
+     * without rebuilding the client.
+     */
+    public DigiCertApiClient(String baseUrl,
+                             ApiKeyProvider apiKeyProvider,
+                             DigiCertHttpTransport transport,
+                             HttpEndpointPolicy listPolicy,
+                             HttpEndpointPolicy downloadPolicy,
+                             int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
         }
-
-        LOGGER.info("No FR/issued filter match found; selecting first available certificate ID {}", certificates.get(0).getId());
-        return certificates.get(0);
+        this.baseUrl = baseUrl;
+        this.apiKeyProvider = apiKeyProvider;
+        this.transport = transport;
+        this.listPolicy = listPolicy;
+        this.downloadPolicy = downloadPolicy;
+        this.pageSize = pageSize;
+        this.objectMapper = new ObjectMapper();
     }
 
+    @Override
     public List<DigiCertCertificateSummary> listCertificates() throws IOException {
-        String endpoint = baseUrl + "/certificate";
-        LOGGER.info("Calling DigiCert List Certificates endpoint: {}", endpoint);
-        HttpURLConnection connection = openGet(endpoint);
-        int status = connection.getResponseCode();
-        byte[] responseBody = readBody(status >= 400 ? connection.getErrorStream() : connection.getInputStream());
-        ensureSuccess(status, responseBody);
-
-        ListCertificatesResponse response = objectMapper.readValue(responseBody, ListCertificatesResponse.class);
-        LOGGER.info("DigiCert List Certificates returned {} certificates", response.getCertificates().size());
-        return response.getCertificates();
+        final List<DigiCertCertificateSummary> certificates = new ArrayList<>();
+        forEachCertificate(certificate -> certificates.add(certificate));
+        LOGGER.info("DigiCert List Certificates returned {} certificates", certificates.size());
+        return certificates;
+    }
+
+    /**
+     * Streams the certificate list page by page ({@code offset}/{@code limit}), handing each certificate to the
+     * visitor as soon as it is parsed. The next page is requested only after the visitor has seen the current one.
+     */
+    @Override
+    public void forEachCertificate(CertificateVisitor visitor) throws IOException {
+        int offset = 0;
+        while (true) {
+            String endpoint = String.format(Locale.ROOT, "%s/certificate?offset=%d&limit=%d", baseUrl, offset, pageSize);
+            LOGGER.info("Calling DigiCert List Certificates endpoint: {}", endpoint);
+            long start = System.nanoTime();
+            PageReader page = transport.get(endpoint, requestHeaders(), listPolicy, new PageReader(visitor));
+            listLatency.recordSince(start);
+
+            if (page.stopped || page.count < pageSize || (page.total >= 0 && offset + page.count >= page.total)) {
+                return;
+            }
+            offset += page.count;
+        }
     }
 
+    @Override
     public byte[] downloadCertificateZip(long certificateId) throws IOException {
         String endpoint = String.format(Locale.ROOT, "%s/certificate/%d/download", baseUrl, certificateId);
         LOGGER.info("Calling DigiCert Download Certificate endpoint: {}", endpoint);
 
-        HttpURLConnection connection = openGet(endpoint);
-        int status = connection.getResponseCode();
-        byte[] responseBody = readBody(status >= 400 ? connection.getErrorStream() : connection.getInputStream());
-        ensureSuccess(status, responseBody);
+        long start = System.nanoTime();
+        byte[] responseBody = transport.get(endpoint, requestHeaders(), downloadPolicy);
+        downloadLatency.recordSince(start);
 
         LOGGER.info("Downloaded certificate ZIP for certificate ID {} ({} bytes)", certificateId, responseBody.length);
         return responseBody;
     }
 
-    private HttpURLConnection openGet(String endpoint) throws IOException {
-        URL url = new URL(endpoint);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setConnectTimeout(connectTimeoutMillis);
-        connection.setReadTimeout(readTimeoutMillis);
-        connection.setRequestProperty("X-DC-DEVKEY", apiKey);
-        connection.setRequestProperty("Accept", "application/json, application/zip");
-        return connection;
+    private Map<String, String> requestHeaders() {
+        Map<String, String> headers = new HashMap<>(4);
+        headers.put("X-DC-DEVKEY", apiKeyProvider.getApiKey());
+        headers.put("Accept", "application/json, application/zip");
+        return headers;
     }
 
-    private void ensureSuccess(int statusCode, byte[] body) throws IOException {
-        if (statusCode < 200 || statusCode >= 300) {
-            String payload = body == null ? "" : new String(body, StandardCharsets.UTF_8);
-            throw new IOException("DigiCert API call failed with status " + statusCode + ". Payload: " + payload);
+    private final class PageReader implements DigiCertHttpTransport.BodyReader<PageReader> {
+
+        private final CertificateVisitor visitor;
+        // Survives retries of the same page so a visitor never sees a certificate twice.
+        private int delivered;
+        private int count;
+        private long total = -1;
+        private boolean stopped;
+
+        PageReader(CertificateVisitor visitor) {
+            this.visitor = visitor;
         }
-    }
 
-    private byte[] readBody(InputStream inputStream) throws IOException {
-        if (inputStream == null) {
-            return new byte[0];
+        @Override
+        public PageReader read(InputStream body, long contentLength) throws IOException {
+            count = 0;
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Unexpected DigiCert List Certificates response");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.START_ARRAY && ("certificates".equals(field) || "items".equals(field))) {
+                        if (!readCertificates(parser)) {
+                            stopped = true;
+                            return this;
+                        }
+                    } else if (value == JsonToken.START_OBJECT && "page".equals(field)) {
+                        readPageInfo(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            return this;
         }
-        try (InputStream in = inputStream; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            byte[] buffer = new byte[4096];
-            int read;
-            while ((read = in.read(buffer)) != -1) {
-                out.write(buffer, 0, read);
+
+        private boolean readCertificates(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                DigiCertCertificateSummary certificate = objectMapper.readValue(parser, DigiCertCertificateSummary.class);
+                count++;
+                if (count <= delivered) {
+                    continue;
+                }
+                delivered = count;
+                if (!visitor.visit(certificate)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void readPageInfo(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("total".equals(field)) {
+                    total = parser.getValueAsLong(-1);
+                } else {
+                    parser.skipChildren();
+                }
             }
-            return out.toByteArray();
         }
     }
 }
@@ -0,0 +1,34 @@
+package com.example.docsigning.digicert;
+
+import com.example.docsigning.model.DigiCertCertificateSummary;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The DigiCert CertCentral calls the service depends on. {@link DigiCertApiClient} implements them over HTTP.
+ */
+public interface DigiCertClient {
+
+    /**
+     * Receives certificates one at a time while the list response is being parsed.
+     */
+    interface CertificateVisitor {
+        /**
+         * @return {@code false} to stop listing; no further pages are requested
+         */
+        boolean visit(DigiCertCertificateSummary certificate) throws IOException;
+    }
+
+    List<DigiCertCertificateSummary> listCertificates() throws IOException;
+
+    /**
+     * Hands each listed certificate to {@code visitor} as soon as it is available.
+     */
+    void forEachCertificate(CertificateVisitor visitor) throws IOException;
+
+    /**
+     * Returns the ZIP archive DigiCert serves for the certificate.
+     */
+    byte[] downloadCertificateZip(long certificateId) throws IOException;
+}
@@ -0,0 +1,35 @@
+package com.example.docsigning.digicert;
+
+import java.io.IOException;
+
+/**
+ * Non-2xx answer from DigiCert. 5xx and 429 are retryable; other statuses are not.
+ */
+public class DigiCertHttpException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public DigiCertHttpException(int statusCode, String payload, long retryAfterMillis) {
+        super("DigiCert API call failed with status " + statusCode + ". Payload: " + payload);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Delay requested by the server through {@code Retry-After}, or {@code -1}.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    public boolean isRetryable() {
+        return statusCode >= 500 || statusCode == 429;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.docsigning.digicert;
+
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.example.docsigning.resilience.CircuitOpenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP GET transport for the DigiCert API.
+ *
+ * <p>Connections come from the JDK keep-alive pool (sized by {@code http.maxConnections}); every response body,
+ * including error bodies, is drained and closed so its connection goes back to the pool. Responses may be gzip
+ * encoded, and uncompressed bodies are read into a buffer presized from {@code Content-Length} (up to 1 MiB; a larger
+ * declared length is read incrementally, so a bogus header cannot force a huge allocation).
+ * GETs are idempotent, so I/O failures, 5xx and 429 answers are retried with full-jitter exponential backoff.
+ * A shared {@link CircuitBreaker} fails calls fast while DigiCert keeps failing.
+ */
+public class DigiCertHttpTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DigiCertHttpTransport.class);
+    private static final int UNKNOWN_LENGTH_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_PRESIZED_BODY_BYTES = 1024 * 1024;
+
+    /**
+     * Consumes a successful response body. {@code contentLength} is {@code -1} when unknown or when the body is
+     * gzip decoded on the fly.
+     */
+    public interface BodyReader<T> {
+        T read(InputStream body, long contentLength) throws IOException;
+    }
+
+    private final CircuitBreaker circuitBreaker;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public DigiCertHttpTransport(CircuitBreaker circuitBreaker, long baseBackoffMillis, long maxBackoffMillis) {
+        this.circuitBreaker = circuitBreaker;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public byte[] get(String url, Map<String, String> headers, HttpEndpointPolicy policy) throws IOException {
+        return get(url, headers, policy, DigiCertHttpTransport::readBody);
+    }
+
+    public <T> T get(String url, Map<String, String> headers, HttpEndpointPolicy policy, BodyReader<T> reader)
+            throws IOException {
+        IOException lastFailure = null;
+        for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                throw new CircuitOpenException(circuitBreaker.getName());
+            }
+            long retryAfterMillis = -1;
+            try {
+                T result = attempt(url, headers, policy, reader);
+                circuitBreaker.recordSuccess();
+                return result;
+            } catch (DigiCertHttpException e) {
+                if (!e.isRetryable()) {
+                    // DigiCert answered; a client error says nothing about its health.
+                    circuitBreaker.recordSuccess();
+                    throw e;
+                }
+                circuitBreaker.recordFailure();
+                lastFailure = e;
+                retryAfterMillis = e.getRetryAfterMillis();
+            } catch (IOException e) {
+                circuitBreaker.recordFailure();
+                lastFailure = e;
+            } catch (RuntimeException | Error e) {
+                // Still settles a half-open trial, which would otherwise hold the circuit half-open.
+                circuitBreaker.recordFailure();
+                throw e;
+            }
+
+            if (attempt < policy.getMaxAttempts()) {
+                long delay = backoffMillis(attempt, retryAfterMillis);
+                LOGGER.warn("DigiCert GET {} failed (attempt {}/{}): {}; retrying in {} ms",
+                        url, attempt, policy.getMaxAttempts(), lastFailure.getMessage(), delay);
+                sleep(delay);
+            }
+        }
+        throw lastFailure;
+    }
+
+    private <T> T attempt(String url, Map<String, String> headers, HttpEndpointPolicy policy, BodyReader<T> reader)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(policy.getConnectTimeoutMillis());
+        connection.setReadTimeout(policy.getReadTimeoutMillis());
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        int status = connection.getResponseCode();
+        boolean gzip = "gzip".equalsIgnoreCase(connection.getContentEncoding());
+        long contentLength = gzip ? -1 : connection.getContentLengthLong();
+
+        if (status < 200 || status >= 300) {
+            byte[] errorBody = readBody(decode(connection.getErrorStream(), gzip), contentLength);
+            throw new DigiCertHttpException(status, new String(errorBody, StandardCharsets.UTF_8),
+                    parseRetryAfter(connection.getHeaderField("Retry-After")));
+        }
+        try (InputStream body = decode(connection.getInputStream(), gzip)) {
+            return reader.read(body, contentLength);
+        }
+    }
+
+    private static InputStream decode(InputStream raw, boolean gzip) throws IOException {
+        if (raw == null || !gzip) {
+            return raw;
+        }
+        return new GZIPInputStream(raw);
+    }
+
+    static byte[] readBody(InputStream inputStream, long contentLength) throws IOException {
+        if (inputStream == null) {
+            return new byte[0];
+        }
+        try (InputStream in = inputStream) {
+            if (contentLength >= 0 && contentLength <= MAX_PRESIZED_BODY_BYTES) {
+                byte[] body = new byte[(int) contentLength];
+                int offset = 0;
+                while (offset < body.length) {
+                    int read = in.read(body, offset, body.length - offset);
+                    if (read == -1) {
+                        throw new IOException("Response ended after " + offset + " of " + contentLength + " bytes");
+                    }
+                    offset += read;
+                }
+                return body;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(UNKNOWN_LENGTH_BUFFER_SIZE);
+            byte[] buffer = new byte[UNKNOWN_LENGTH_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private long backoffMillis(int attempt, long retryAfterMillis) {
+        if (retryAfterMillis > 0) {
+            return Math.min(retryAfterMillis, maxBackoffMillis);
+        }
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static long parseRetryAfter(String header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim()) * 1000L;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off before DigiCert retry");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.docsigning.digicert;
+
+/**
+ * Timeouts and retry budget for one remote endpoint.
+ */
+public class HttpEndpointPolicy {
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final int maxAttempts;
+
+    public HttpEndpointPolicy(int connectTimeoutMillis, int readTimeoutMillis, int maxAttempts) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.docsigning.digicert;
+
+import com.example.docsigning.model.CertificateSelector;
+
+import java.io.IOException;
+
+/**
+ * Thrown when no certificate in the DigiCert account matches a {@link CertificateSelector}.
+ */
+public class NoMatchingCertificateException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NoMatchingCertificateException(CertificateSelector selector) {
+        super("No DigiCert certificate matches " + selector);
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.docsigning.http;
+
+import com.example.docsigning.digicert.NoMatchingCertificateException;
+import com.example.docsigning.metrics.LatencyHistogram;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.resilience.CircuitOpenException;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Minimal HTTP front end over {@link DocumentSigningOrchestrator} built on the JDK {@link HttpServer}.
+ *
+ * <p>The server's dispatcher thread only parses headers and hands signing requests to a fixed worker pool with
+ * a bounded queue. When the queue is full the request is answered with 429 and {@code Retry-After} straight away,
+ * before its body is read, so excess load is shed cheaply and accepted requests keep their latency.
+ *
+ * <ul>
+ *     <li>{@code POST /sign} - body is the document; optional {@code country}, {@code organization} and
+ *     {@code status} query parameters select the certificate, the country defaulting to the configured one</li>
+ *     <li>{@code POST /sign-digest} - body is a raw 32-byte SHA-256 digest; same query parameters</li>
+ *     <li>{@code GET /health} - liveness, always 200</li>
+ *     <li>{@code GET /ready} - 200 once the readiness check passes, 503 before</li>
+ * </ul>
+ *
+ * <p>Request validation failures are answered with 400 and their message, and a selection no certificate matches
+ * with 404; any other failure is logged and answered with a generic 500.
+ */
+public class SigningHttpServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SigningHttpServer.class);
+    private static final int STOP_GRACE_SECONDS = 5;
+    private static final int SHA256_DIGEST_LENGTH = 32;
+    private static final String DEFAULT_COUNTRY = "FR";
+
+    private final DocumentSigningOrchestrator orchestrator;
+    private final BooleanSupplier readiness;
+    private final int maxBodyBytes;
+    private final long retryAfterSeconds;
+    private final String defaultCountry;
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder rejected = SigningMetrics.shared().counter("http.rejected");
+    private final LatencyHistogram requestLatency = SigningMetrics.shared().histogram("http.request");
+
+    public SigningHttpServer(DocumentSigningOrchestrator orchestrator,
+                             BooleanSupplier readiness,
+                             int port,
+                             int workerThreads,
+                             int queueCapacity,
+                             int maxBodyBytes,
+                             long retryAfterSeconds) throws IOException {
+        this(orchestrator, readiness, port, workerThreads, queueCapacity, maxBodyBytes, retryAfterSeconds, DEFAULT_COUNTRY);
+    }
+
+    /**
+     * @param defaultCountry country used when a request selects a certificate by organization or status only,
+     *                       and for requests that select nothing
+     */
+    public SigningHttpServer(DocumentSigningOrchestrator orchestrator,
+                             BooleanSupplier readiness,
+                             int port,
+                             int workerThreads,
+                             int queueCapacity,
+                             int maxBodyBytes,
+                             long retryAfterSeconds,
+                             String defaultCountry) throws IOException {
+        this.orchestrator = orchestrator;
+        this.readiness = readiness;
+        this.maxBodyBytes = maxBodyBytes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.defaultCountry = defaultCountry;
+        this.workers = newWorkerPool(workerThreads, queueCapacity);
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext("/sign", exchange -> dispatch(exchange, this::sign));
+        this.server.createContext("/sign-digest", exchange -> dispatch(exchange, this::signDigest));
+        this.server.createContext("/health", exchange -> respond(exchange, 200, "OK"));
+        this.server.createContext("/ready", exchange -> {
+            if (readiness.getAsBoolean()) {
+                respond(exchange, 200, "READY");
+            } else {
+                respondUnavailable(exchange, 503, "NOT READY");
+            }
+        });
+        SigningMetrics.shared().gauge("http.queue_depth", () -> workers.getQueue().size());
+        SigningMetrics.shared().gauge("http.active_workers", workers::getActiveCount);
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Signing HTTP server listening on port {} ({} workers, queue {})",
+                getPort(), workers.getMaximumPoolSize(), workers.getQueue().remainingCapacity());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(STOP_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface SigningHandler {
+        Map<String, Object> handle(byte[] body, Map<String, String> query) throws Exception;
+    }
+
+    /**
+     * A request the client has to fix; its message is returned with the 400.
+     */
+    private static final class BadRequestException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Runs on the dispatcher thread: cheap checks only, then hands the exchange to a worker.
+     */
+    private void dispatch(HttpExchange exchange, SigningHandler handler) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        if (!readiness.getAsBoolean()) {
+            respondUnavailable(exchange, 503, "Service is starting");
+            return;
+        }
+        long declaredLength = declaredLength(exchange);
+        if (declaredLength > maxBodyBytes) {
+            respond(exchange, 413, "Request body exceeds " + maxBodyBytes + " bytes");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            workers.execute(() -> process(exchange, handler, declaredLength, start));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            respondUnavailable(exchange, 429, "Too many requests");
+        }
+    }
+
+    private void process(HttpExchange exchange, SigningHandler handler, long declaredLength, long start) {
+        try {
+            byte[] body = readBody(exchange.getRequestBody(), declaredLength);
+            if (body == null) {
+                respond(exchange, 413, "Request body exceeds " + maxBodyBytes + " bytes");
+                return;
+            }
+            Map<String, Object> result = handler.handle(body, parseQuery(exchange.getRequestURI().getRawQuery()));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            send(exchange, 200, objectMapper.writeValueAsBytes(result));
+        } catch (BadRequestException e) {
+            respondQuietly(exchange, 400, e.getMessage());
+        } catch (NoMatchingCertificateException e) {
+            respondQuietly(exchange, 404, "No certificate matches the selection");
+        } catch (CircuitOpenException e) {
+            LOGGER.warn("Signing unavailable: {}", e.getMessage());
+            respondUnavailableQuietly(exchange, 503, "Certificate source unavailable");
+        } catch (Exception e) {
+            LOGGER.warn("Signing request failed", e);
+            respondQuietly(exchange, 500, "Signing failed");
+        } finally {
+            requestLatency.recordSince(start);
+        }
+    }
+
+    private Map<String, Object> sign(byte[] body, Map<String, String> query) throws Exception {
+        return toJson(orchestrator.signDocument(body, selector(query)));
+    }
+
+    private Map<String, Object> signDigest(byte[] body, Map<String, String> query) throws Exception {
+        if (body.length != SHA256_DIGEST_LENGTH) {
+            throw new BadRequestException("Expected a " + SHA256_DIGEST_LENGTH + "-byte SHA-256 digest, got "
+                    + body.length + " bytes");
+        }
+        return toJson(orchestrator.signDigest(body, selector(query)));
+    }
+
+    /**
+     * The selection named by the {@code country}, {@code organization} and {@code status} parameters; other
+     * parameters are ignored. Without any of them the configured country is used.
+     */
+    private CertificateSelector selector(Map<String, String> query) throws BadRequestException {
+        String country = query.get("country");
+        String organization = query.get("organization");
+        String status = query.get("status");
+        if (country == null && organization == null && status == null) {
+            return CertificateSelector.of(defaultCountry, null, null);
+        }
+        if ((country != null && country.trim().isEmpty()) || (organization != null && organization.trim().isEmpty())
+                || (status != null && status.trim().isEmpty())) {
+            throw new BadRequestException("country, organization and status must not be empty when given");
+        }
+        return CertificateSelector.of(country == null ? defaultCountry : country, organization, status);
+    }
+
+    private static Map<String, Object> toJson(SignedDocument signed) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("signatureType", signed.getSignatureType());
+        json.put("signature", Base64.getEncoder().encodeToString(signed.getSignature()));
+        json.put("certificate", Base64.getEncoder().encodeToString(signed.getCertificate()));
+        return json;
+    }
+
+    private static long declaredLength(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads at most {@code maxBodyBytes}; returns {@code null} when a body without a declared length is larger.
+     */
+    private byte[] readBody(InputStream in, long declaredLength) throws IOException {
+        if (declaredLength >= 0) {
+            byte[] body = new byte[(int) declaredLength];
+            int offset = 0;
+            while (offset < body.length) {
+                int read = in.read(body, offset, body.length - offset);
+                if (read == -1) {
+                    throw new IOException("Request body ended after " + offset + " of " + declaredLength + " bytes");
+                }
+                offset += read;
+            }
+            return body;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBodyBytes) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private void respondUnavailable(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+        respond(exchange, status, message);
+    }
+
+    private void respondUnavailableQuietly(HttpExchange exchange, int status, String message) {
+        try {
+            respondUnavailable(exchange, status, message);
+        } catch (IOException e) {
+            LOGGER.debug("Could not send {} response", status, e);
+        }
+    }
+
+    private static void respondQuietly(HttpExchange exchange, int status, String message) {
+        try {
+            respond(exchange, status, message);
+        } catch (IOException e) {
+            LOGGER.debug("Could not send {} response", status, e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        send(exchange, status, (message == null ? "" : message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static ThreadPoolExecutor newWorkerPool(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "http-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
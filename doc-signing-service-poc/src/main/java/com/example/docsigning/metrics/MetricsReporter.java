@@ -0,0 +1,11 @@
+package com.example.docsigning.metrics;
+
+import java.util.Map;
+
+/**
+ * Sink for periodic metric snapshots, e.g. a log line, a StatsD socket or a CloudWatch client.
+ */
+public interface MetricsReporter {
+
+    void report(Map<String, Long> snapshot);
+}
@@ -0,0 +1,45 @@
+package com.example.docsigning.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes a snapshot of {@link SigningMetrics} to a {@link MetricsReporter} at a fixed interval.
+ * A non-positive interval disables reporting.
+ */
+public class PeriodicMetricsReporting implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PeriodicMetricsReporting.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    public PeriodicMetricsReporting(SigningMetrics metrics, MetricsReporter reporter, long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            this.scheduler = null;
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                reporter.report(metrics.snapshot());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Metrics reporter failed", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
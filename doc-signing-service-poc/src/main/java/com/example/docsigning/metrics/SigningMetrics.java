@@ -0,0 +1,73 @@
+package com.example.docsigning.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of signing counters, gauges and latency histograms. Components look their metrics up
+ * once at construction and keep the handles, so recording never touches the registry maps.
+ */
+public final class SigningMetrics {
+
+    public static final String LOCAL_CACHE_HIT = "cache.local.hit";
+    public static final String LOCAL_CACHE_MISS = "cache.local.miss";
+    public static final String REDIS_CACHE_HIT = "cache.redis.hit";
+    public static final String REDIS_CACHE_MISS = "cache.redis.miss";
+    public static final String REDIS_ROUND_TRIP = "redis.round_trip";
+    public static final String DIGICERT_LIST = "digicert.list";
+    public static final String DIGICERT_DOWNLOAD = "digicert.download";
+    public static final String KEY_PARSE = "signer.key_parse";
+    public static final String SIGN = "signer.sign";
+    public static final String BYTES_SIGNED = "signer.bytes_signed";
+    public static final String DOCUMENTS_SIGNED = "signer.documents_signed";
+    public static final String SIGN_DOCUMENT = "orchestrator.sign_document";
+
+    private static final SigningMetrics SHARED = new SigningMetrics();
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public static SigningMetrics shared() {
+        return SHARED;
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, ignored -> new LongAdder());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, ignored -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers (or replaces) a gauge read lazily at snapshot time.
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Flattened, name-sorted view of every metric. Histograms expand to {@code .count}, {@code .mean_us},
+     * {@code .p50_us}, {@code .p99_us}, {@code .p999_us} and {@code .max_us}.
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".mean_us", TimeUnit.NANOSECONDS.toMicros(histogram.getMeanNanos()));
+            values.put(name + ".p50_us", histogram.getPercentileMicros(50));
+            values.put(name + ".p99_us", histogram.getPercentileMicros(99));
+            values.put(name + ".p999_us", histogram.getPercentileMicros(99.9));
+            values.put(name + ".max_us", TimeUnit.NANOSECONDS.toMicros(histogram.getMaxNanos()));
+        });
+        return values;
+    }
+}
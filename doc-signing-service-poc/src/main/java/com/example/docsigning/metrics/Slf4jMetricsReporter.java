@@ -0,0 +1,16 @@
+package com.example.docsigning.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+public class Slf4jMetricsReporter implements MetricsReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Slf4jMetricsReporter.class);
+
+    @Override
+    public void report(Map<String, Long> snapshot) {
+        LOGGER.info("Signing metrics: {}", snapshot);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.docsigning.model;
+
+/**
+ * Outcome of signing one document of a batch: either the signed document or the error it failed with.
+ */
+public class BatchSignResult {
+
+    private final int index;
+    private final SignedDocument signedDocument;
+    private final Exception error;
+
+    private BatchSignResult(int index, SignedDocument signedDocument, Exception error) {
+        this.index = index;
+        this.signedDocument = signedDocument;
+        this.error = error;
+    }
+
+    public static BatchSignResult success(int index, SignedDocument signedDocument) {
+        return new BatchSignResult(index, signedDocument, null);
+    }
+
+    public static BatchSignResult failure(int index, Exception error) {
+        return new BatchSignResult(index, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public SignedDocument getSignedDocument() {
+        return signedDocument;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
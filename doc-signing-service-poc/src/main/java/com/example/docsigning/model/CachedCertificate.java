@@ -0,0 +1,31 @@
+package com.example.docsigning.model;
+
+/**
+ * A certificate bundle together with the wall-clock time at which its cache entry expires.
+ */
+public class CachedCertificate {
+
+    private final CertificateBundle bundle;
+    private final long expiresAtMillis;
+
+    public CachedCertificate(CertificateBundle bundle, long expiresAtMillis) {
+        this.bundle = bundle;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public CertificateBundle getBundle() {
+        return bundle;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public long remainingMillis(long nowMillis) {
+        return expiresAtMillis - nowMillis;
+    }
+
+    public boolean isValidAt(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+}
@@ -1,15 +1,34 @@
 package com.example.docsigning.model;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
 
 public class CertificateBundle {
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
     private final byte[] crtBytes;
     private final byte[] privateKeyBytes;
+    private final List<byte[]> chain;
+    private volatile String fingerprint;
 
     public CertificateBundle(byte[] crtBytes, byte[] privateKeyBytes) {
+        this(crtBytes, privateKeyBytes, Collections.<byte[]>emptyList());
+    }
+
+    /**
+     * @param chain DER-encoded intermediate certificates, issuer of {@code crtBytes} first
+     */
+    public CertificateBundle(byte[] crtBytes, byte[] privateKeyBytes, List<byte[]> chain) {
         this.crtBytes = crtBytes;
         this.privateKeyBytes = privateKeyBytes;
+        this.chain = chain == null || chain.isEmpty()
+                ? Collections.<byte[]>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(chain));
     }
 
     public byte[] getCrtBytes() {
@@ -20,6 +39,23 @@ public class CertificateBundle {
         return privateKeyBytes;
     }
 
+    public List<byte[]> getChain() {
+        return chain;
+    }
+
+    /**
+     * Hex SHA-256 over the certificate and key bytes. Two bundles with the same content share a fingerprint,
+     * which lets callers key parsed material on it. Computed once per instance.
+     */
+    public String getFingerprint() {
+        String value = fingerprint;
+        if (value == null) {
+            value = computeFingerprint();
+            fingerprint = value;
+        }
+        return value;
+    }
+
     public String serialize() {
         String crt = Base64.getEncoder().encodeToString(crtBytes);
         String privateKey = privateKeyBytes == null ? "" : Base64.getEncoder().encodeToString(privateKeyBytes);
@@ -32,4 +68,25 @@ public class CertificateBundle {
         byte[] key = parts.length > 1 && !parts[1].isEmpty() ? Base64.getDecoder().decode(parts[1]) : null;
         return new CertificateBundle(crt, key);
     }
+
+    private String computeFingerprint() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available in this JVM", e);
+        }
+        digest.update(crtBytes);
+        digest.update((byte) 0);
+        if (privateKeyBytes != null) {
+            digest.update(privateKeyBytes);
+        }
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX[hash[i] & 0x0f];
+        }
+        return new String(hex);
+    }
 }
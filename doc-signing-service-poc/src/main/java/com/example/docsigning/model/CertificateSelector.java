@@ -0,0 +1,85 @@
+package com.example.docsigning.model;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Identifies which DigiCert certificate to sign with, by country, organization and status.
+ * A {@code null} criterion matches anything. Selectors are value objects and serve as cache keys.
+ */
+public final class CertificateSelector {
+
+    /**
+     * The historical behaviour: prefer a country {@code FR} certificate, then any issued one, then the first listed.
+     */
+    public static final CertificateSelector DEFAULT = new CertificateSelector("FR", null, null);
+
+    private final String country;
+    private final String organization;
+    private final String status;
+
+    private CertificateSelector(String country, String organization, String status) {
+        this.country = country == null ? null : country.toUpperCase(Locale.ROOT);
+        this.organization = organization == null ? null : organization.toLowerCase(Locale.ROOT);
+        this.status = status == null ? null : status.toLowerCase(Locale.ROOT);
+    }
+
+    public static CertificateSelector of(String country, String organization, String status) {
+        return new CertificateSelector(country, organization, status);
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getOrganization() {
+        return organization;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isDefault() {
+        return equals(DEFAULT);
+    }
+
+    public boolean matches(DigiCertCertificateSummary summary) {
+        return (country == null || country.equalsIgnoreCase(summary.getCountry()))
+                && (organization == null || organization.equalsIgnoreCase(summary.getOrganization()))
+                && (status == null || status.equalsIgnoreCase(summary.getStatus()));
+    }
+
+    /**
+     * Stable suffix distinguishing this selection's entry in Redis; {@code *} stands for an unset criterion.
+     */
+    public String toCacheKeySuffix() {
+        return (country == null ? "*" : country) + ":"
+                + (organization == null ? "*" : organization) + ":"
+                + (status == null ? "*" : status);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CertificateSelector)) {
+            return false;
+        }
+        CertificateSelector that = (CertificateSelector) o;
+        return Objects.equals(country, that.country)
+                && Objects.equals(organization, that.organization)
+                && Objects.equals(status, that.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(country, organization, status);
+    }
+
+    @Override
+    public String toString() {
+        return "CertificateSelector{" + toCacheKeySuffix() + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.docsigning.model;
+
+/**
+ * Signature result for a streamed or pre-hashed document. The document bytes are never held, so
+ * {@link #getOriginalDocument()} returns {@code null}; only the signed length is kept, when known.
+ */
+public class DetachedSignedDocument extends SignedDocument {
+
+    public static final long UNKNOWN_LENGTH = -1L;
+
+    private final long documentLength;
+
+    public DetachedSignedDocument(long documentLength, byte[] signature, byte[] certificate, String signatureType) {
+        super(null, signature, certificate, signatureType);
+        this.documentLength = documentLength;
+    }
+
+    public long getDocumentLength() {
+        return documentLength;
+    }
+}
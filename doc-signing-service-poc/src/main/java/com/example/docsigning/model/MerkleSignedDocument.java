@@ -0,0 +1,43 @@
+package com.example.docsigning.model;
+
+import com.example.docsigning.crypto.MerkleProof;
+
+/**
+ * One document of a Merkle-signed batch. {@link #getSignature()} is the signature of the batch's Merkle root
+ * ({@link #getRoot()}), shared by every document of the batch; {@link #getProof()} ties this document to that root.
+ * {@link #getSignatureType()} names the algorithm that signed the root.
+ */
+public class MerkleSignedDocument extends SignedDocument {
+
+    /**
+     * Signature type used when the bundle has no private key: the "signature" is {@code SHA-256(root || certificate)}.
+     */
+    public static final String CERT_BOUND_ROOT_TYPE = "CERT_BOUND_SHA256_MERKLE_ROOT";
+
+    private final byte[] documentDigest;
+    private final byte[] root;
+    private final MerkleProof proof;
+
+    public MerkleSignedDocument(byte[] originalDocument, byte[] documentDigest, byte[] root, MerkleProof proof,
+                                byte[] rootSignature, byte[] certificate, String signatureType) {
+        super(originalDocument, rootSignature, certificate, signatureType);
+        this.documentDigest = documentDigest;
+        this.root = root;
+        this.proof = proof;
+    }
+
+    /**
+     * SHA-256 of the document, i.e. the value the proof's leaf was built from.
+     */
+    public byte[] getDocumentDigest() {
+        return documentDigest;
+    }
+
+    public byte[] getRoot() {
+        return root;
+    }
+
+    public MerkleProof getProof() {
+        return proof;
+    }
+}
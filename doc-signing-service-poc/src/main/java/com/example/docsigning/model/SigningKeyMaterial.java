@@ -0,0 +1,43 @@
+package com.example.docsigning.model;
+
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+/**
+ * Parsed, ready-to-use signing material for one {@link CertificateBundle}.
+ * The private key is {@code null} when the bundle only carries a certificate.
+ */
+public class SigningKeyMaterial {
+
+    private final String fingerprint;
+    private final X509Certificate certificate;
+    private final PrivateKey privateKey;
+    private final String subjectName;
+
+    public SigningKeyMaterial(String fingerprint, X509Certificate certificate, PrivateKey privateKey) {
+        this.fingerprint = fingerprint;
+        this.certificate = certificate;
+        this.privateKey = privateKey;
+        this.subjectName = certificate.getSubjectX500Principal().getName();
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    public String getSubjectName() {
+        return subjectName;
+    }
+
+    public boolean hasPrivateKey() {
+        return privateKey != null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.docsigning.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the circuit opens and
+ * calls fail fast for {@code openDurationMillis}; then a single trial call is let through (half-open), whose
+ * outcome closes the circuit again or re-opens it. A trial that reports neither outcome within another
+ * {@code openDurationMillis} is presumed lost, and the next caller gets a new one.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAtMillis = new AtomicLong();
+    private final AtomicLong trialStartedAtMillis = new AtomicLong();
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Returns whether a call may proceed. While open, the first caller after the open period wins the half-open trial.
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (current == State.OPEN && now - openedAtMillis.get() >= openDurationMillis) {
+            trialStartedAtMillis.set(now);
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        if (current == State.HALF_OPEN) {
+            long trialStartedAt = trialStartedAtMillis.get();
+            if (now - trialStartedAt >= openDurationMillis && trialStartedAtMillis.compareAndSet(trialStartedAt, now)) {
+                LOGGER.warn("Circuit {} trial call never reported its outcome; allowing another", name);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            LOGGER.info("Circuit {} closed", name);
+        }
+    }
+
+    public void recordFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            // Stamped before the state is published, so no caller can see OPEN with a stale opening time.
+            openedAtMillis.set(System.currentTimeMillis());
+            if (state.compareAndSet(current, State.OPEN)) {
+                LOGGER.warn("Circuit {} opened after {} consecutive failures; failing fast for {} ms",
+                        name, failures, openDurationMillis);
+            }
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
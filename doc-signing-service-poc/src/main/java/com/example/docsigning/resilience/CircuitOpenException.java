@@ -0,0 +1,15 @@
+package com.example.docsigning.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of attempting a call while the guarding {@link CircuitBreaker} is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String circuitName) {
+        super("Circuit " + circuitName + " is open; failing fast");
+    }
+}
@@ -1,54 +1,244 @@
 package com.example.docsigning.service;
 
+import com.example.docsigning.crypto.PemDecoder;
+import com.example.docsigning.crypto.PrivateKeyDer;
 import com.example.docsigning.model.CertificateBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.security.auth.x500.X500Principal;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+/**
+ * Extracts the signing certificate, its intermediates and the private key from a DigiCert download ZIP in one pass.
+ *
+ * <p>Only {@code .crt}, {@code .key} and {@code .pem} entries are read into memory, each into a buffer presized from
+ * the entry header; everything else is skipped unread. Reading stops early only once the key is in hand and the
+ * leaf's issuers link up to a root certificate seen in the archive; otherwise every entry is read, so intermediates
+ * spread over several files are all kept. The chain is returned in issuing order. Certificates come out as DER and
+ * keys as PKCS#8 DER (PKCS#1 RSA keys are converted), so nothing downstream parses PEM. Entry count and entry size
+ * are capped to keep a hostile archive from exhausting memory.
+ */
 public class CertificateArchiveService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CertificateArchiveService.class);
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+    private static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+    private static final int UNKNOWN_SIZE_BUFFER_BYTES = 8192;
+
+    private final int maxEntries;
+    private final int maxEntryBytes;
+
+    public CertificateArchiveService() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_ENTRY_BYTES);
+    }
+
+    public CertificateArchiveService(int maxEntries, int maxEntryBytes) {
+        this.maxEntries = maxEntries;
+        this.maxEntryBytes = maxEntryBytes;
+    }
 
     public CertificateBundle fromZip(byte[] zipBytes) throws IOException {
-        byte[] crtBytes = null;
-        byte[] keyBytes = null;
+        Parts parts = new Parts();
+        int entries = 0;
 
         try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipBytes))) {
             ZipEntry entry;
             while ((entry = zis.getNextEntry()) != null) {
+                if (++entries > maxEntries) {
+                    throw new IOException("DigiCert download ZIP has more than " + maxEntries + " entries");
+                }
                 if (entry.isDirectory()) {
                     continue;
                 }
-                String fileName = entry.getName().toLowerCase();
-                byte[] bytes = readEntry(zis);
-                if (fileName.endsWith(".crt")) {
-                    crtBytes = bytes;
-                    LOGGER.info("Found certificate file in ZIP: {}", entry.getName());
-                } else if (fileName.endsWith(".key") || fileName.endsWith(".pem")) {
-                    keyBytes = bytes;
-                    LOGGER.info("Found potential private key file in ZIP: {}", entry.getName());
+                String name = entry.getName();
+                boolean certificateFile = endsWithIgnoreCase(name, ".crt");
+                boolean keyFile = endsWithIgnoreCase(name, ".key");
+                boolean pemFile = endsWithIgnoreCase(name, ".pem");
+                if (!certificateFile && !keyFile && !pemFile) {
+                    continue;
+                }
+
+                byte[] bytes = readEntry(zis, entry);
+                if (certificateFile) {
+                    LOGGER.info("Found certificate file in ZIP: {}", name);
+                    parts.addCertificates(bytes);
+                } else {
+                    LOGGER.info("Found potential private key file in ZIP: {}", name);
+                    parts.addKeyFile(bytes, pemFile);
+                }
+                if (parts.isComplete()) {
+                    LOGGER.debug("Key and a chain up to the root found; skipping remaining ZIP entries");
+                    break;
                 }
             }
         }
 
-        if (crtBytes == null) {
+        if (parts.leaf == null) {
             throw new IOException("No .crt file found in DigiCert download ZIP.");
         }
-        return new CertificateBundle(crtBytes, keyBytes);
+        return new CertificateBundle(parts.leaf, parts.key, parts.orderedChain());
     }
 
-    private byte[] readEntry(ZipInputStream zis) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        byte[] buffer = new byte[4096];
+    private byte[] readEntry(InputStream in, ZipEntry entry) throws IOException {
+        long declaredSize = entry.getSize();
+        if (declaredSize > maxEntryBytes) {
+            throw new IOException("ZIP entry " + entry.getName() + " exceeds " + maxEntryBytes + " bytes");
+        }
+        if (declaredSize >= 0) {
+            byte[] bytes = new byte[(int) declaredSize];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new IOException("ZIP entry " + entry.getName() + " ended after " + offset + " of " + declaredSize + " bytes");
+                }
+                offset += read;
+            }
+            return bytes;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(UNKNOWN_SIZE_BUFFER_BYTES);
+        byte[] buffer = new byte[UNKNOWN_SIZE_BUFFER_BYTES];
         int read;
-        while ((read = zis.read(buffer)) != -1) {
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxEntryBytes) {
+                throw new IOException("ZIP entry " + entry.getName() + " exceeds " + maxEntryBytes + " bytes");
+            }
             out.write(buffer, 0, read);
         }
         return out.toByteArray();
     }
+
+    private static boolean endsWithIgnoreCase(String name, String suffix) {
+        return name.regionMatches(true, name.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    /**
+     * Sorts certificates into leaf and intermediates as they are read. The first end-entity certificate is the
+     * leaf; CA certificates become the chain, except self-signed roots, which are only remembered so the chain can be
+     * recognised as complete. Bytes that do not parse as a certificate are kept as the leaf if none has been found yet.
+     */
+    private static final class Parts {
+
+        private byte[] leaf;
+        private X509Certificate leafCertificate;
+        private byte[] key;
+        private final List<byte[]> chain = new ArrayList<>(2);
+        private final Map<X500Principal, X500Principal> issuerOfIntermediate = new HashMap<>(4);
+        private final Map<X500Principal, byte[]> intermediateBySubject = new HashMap<>(4);
+        private final Set<X500Principal> rootSubjects = new HashSet<>(2);
+        private CertificateFactory certificateFactory;
+
+        void addCertificates(byte[] file) {
+            List<byte[]> certificates = PemDecoder.isPem(file)
+                    ? PemDecoder.decodeAll(file, PemDecoder.CERTIFICATE)
+                    : Collections.singletonList(file);
+            for (byte[] der : certificates) {
+                addCertificate(der);
+            }
+        }
+
+        void addKeyFile(byte[] file, boolean mayHoldCertificates) {
+            if (mayHoldCertificates && PemDecoder.isPem(file)) {
+                for (byte[] der : PemDecoder.decodeAll(file, PemDecoder.CERTIFICATE)) {
+                    addCertificate(der);
+                }
+                if (PemDecoder.decode(file, PemDecoder.PRIVATE_KEY) == null
+                        && PemDecoder.decode(file, PemDecoder.RSA_PRIVATE_KEY) == null) {
+                    return;
+                }
+            }
+            key = PrivateKeyDer.toPkcs8(file);
+        }
+
+        /**
+         * Whether the key is known and the leaf's issuers lead, through the intermediates read so far, to a root
+         * certificate from the archive. A leaf issued straight by a root needs no intermediate.
+         */
+        boolean isComplete() {
+            if (leafCertificate == null || key == null || rootSubjects.isEmpty()) {
+                return false;
+            }
+            X500Principal issuer = leafCertificate.getIssuerX500Principal();
+            for (int depth = 0; depth <= issuerOfIntermediate.size(); depth++) {
+                if (rootSubjects.contains(issuer)) {
+                    return true;
+                }
+                issuer = issuerOfIntermediate.get(issuer);
+                if (issuer == null) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The intermediates from the leaf's issuer upwards, followed by any that are not on that path, in the order
+         * they were read.
+         */
+        List<byte[]> orderedChain() {
+            if (leafCertificate == null || chain.size() < 2) {
+                return chain;
+            }
+            List<byte[]> ordered = new ArrayList<>(chain.size());
+            List<byte[]> remaining = new ArrayList<>(chain);
+            X500Principal subject = leafCertificate.getIssuerX500Principal();
+            byte[] next;
+            while ((next = intermediateBySubject.get(subject)) != null && remaining.remove(next)) {
+                ordered.add(next);
+                subject = issuerOfIntermediate.get(subject);
+            }
+            ordered.addAll(remaining);
+            return ordered;
+        }
+
+        private void addCertificate(byte[] der) {
+            X509Certificate certificate = parse(der);
+            if (certificate == null || certificate.getBasicConstraints() < 0) {
+                if (leaf == null) {
+                    leaf = der;
+                    leafCertificate = certificate;
+                } else if (certificate != null) {
+                    chain.add(der);
+                }
+                return;
+            }
+            if (certificate.getSubjectX500Principal().equals(certificate.getIssuerX500Principal())) {
+                rootSubjects.add(certificate.getSubjectX500Principal());
+            } else {
+                chain.add(der);
+                if (intermediateBySubject.putIfAbsent(certificate.getSubjectX500Principal(), der) == null) {
+                    issuerOfIntermediate.put(certificate.getSubjectX500Principal(), certificate.getIssuerX500Principal());
+                }
+            }
+        }
+
+        private X509Certificate parse(byte[] der) {
+            try {
+                if (certificateFactory == null) {
+                    certificateFactory = CertificateFactory.getInstance("X.509");
+                }
+                return (X509Certificate) certificateFactory.generateCertificate(new ByteArrayInputStream(der));
+            } catch (CertificateException e) {
+                LOGGER.debug("Certificate file is not a parseable X.509 certificate; keeping it as-is", e);
+                return null;
+            }
+        }
+    }
 }
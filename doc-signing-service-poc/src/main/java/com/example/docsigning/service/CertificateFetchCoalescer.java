@@ -0,0 +1,83 @@
+package com.example.docsigning.service;
+
+import com.example.docsigning.model.CertificateBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-flight guard for certificate fetches. The first caller to miss runs the fetch;
+ * callers arriving while it is in flight wait on the same result instead of starting their own.
+ */
+public class CertificateFetchCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificateFetchCoalescer.class);
+
+    private final AtomicReference<CompletableFuture<CertificateBundle>> inFlight = new AtomicReference<>();
+    private final AtomicLong originatingRequests = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final long waitTimeoutMillis;
+
+    public CertificateFetchCoalescer(long waitTimeoutMillis) {
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public CertificateBundle fetch(Callable<CertificateBundle> loader) throws Exception {
+        CompletableFuture<CertificateBundle> own = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<CertificateBundle> existing = inFlight.get();
+            if (existing != null) {
+                coalescedRequests.incrementAndGet();
+                return await(existing);
+            }
+            if (inFlight.compareAndSet(null, own)) {
+                break;
+            }
+        }
+
+        originatingRequests.incrementAndGet();
+        try {
+            CertificateBundle bundle = loader.call();
+            own.complete(bundle);
+            return bundle;
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.compareAndSet(own, null);
+        }
+    }
+
+    public long getOriginatingRequests() {
+        return originatingRequests.get();
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    private CertificateBundle await(CompletableFuture<CertificateBundle> future) throws Exception {
+        LOGGER.debug("Certificate fetch already in flight; waiting up to {} ms for its result", waitTimeoutMillis);
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Timed out after " + waitTimeoutMillis + " ms waiting for in-flight certificate fetch");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.docsigning.service;
+
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateSelector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background refresh-ahead for the signing certificate. Renews the bundle once {@code refreshAheadFraction}
+ * of its TTL has elapsed, timing each run from the TTL Redis reports so nodes that adopted a bundle renewed
+ * elsewhere do not all go to DigiCert together. A small random jitter spreads the remaining collisions.
+ * Every selection the orchestrator has served is renewed.
+ */
+public class CertificateRefresher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CertificateRefresher.class);
+    private static final double JITTER_FRACTION = 0.05;
+    private static final long MIN_DELAY_MILLIS = 1_000L;
+    private static final long RETRY_DELAY_MILLIS = 30_000L;
+
+    private final DocumentSigningOrchestrator orchestrator;
+    private final long ttlMillis;
+    private final long refreshWindowMillis;
+    private final ScheduledExecutorService scheduler;
+
+    public CertificateRefresher(DocumentSigningOrchestrator orchestrator, int ttlSeconds, double refreshAheadFraction) {
+        if (refreshAheadFraction <= 0 || refreshAheadFraction >= 1) {
+            throw new IllegalArgumentException("Refresh-ahead fraction must be between 0 and 1, got " + refreshAheadFraction);
+        }
+        this.orchestrator = orchestrator;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.refreshWindowMillis = (long) (ttlMillis * (1 - refreshAheadFraction));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "certificate-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.execute(this::refresh);
+    }
+
+    private void refresh() {
+        long delayMillis = Long.MAX_VALUE;
+        for (CertificateSelector selector : orchestrator.getActiveSelectors()) {
+            delayMillis = Math.min(delayMillis, refreshSelection(selector));
+        }
+        long jitter = (long) (ThreadLocalRandom.current().nextDouble() * ttlMillis * JITTER_FRACTION);
+        try {
+            scheduler.schedule(this::refresh, delayMillis + jitter, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Certificate refresher is shut down; not rescheduling");
+        }
+    }
+
+    /**
+     * Renews one selection if due and returns how long until it needs attention again.
+     */
+    private long refreshSelection(CertificateSelector selector) {
+        try {
+            CachedCertificate cached = orchestrator.refreshCertificate(selector, refreshWindowMillis);
+            long remaining = cached.remainingMillis(System.currentTimeMillis());
+            long delayMillis = Math.max(MIN_DELAY_MILLIS, remaining - refreshWindowMillis);
+            LOGGER.info("Certificate bundle for {} valid for another {} ms; next refresh in {} ms", selector, remaining, delayMillis);
+            return delayMillis;
+        } catch (Exception e) {
+            long delayMillis = Math.min(RETRY_DELAY_MILLIS, Math.max(MIN_DELAY_MILLIS, refreshWindowMillis / 4));
+            LOGGER.warn("Certificate refresh for {} failed; retrying in {} ms", selector, delayMillis, e);
+            return delayMillis;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,48 +1,577 @@
 package com.example.docsigning.service;
 
-import com.example.docsigning.cache.RedisCertificateCache;
-import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.cache.CertificateCache;
+import com.example.docsigning.cache.CertificateSnapshotStore;
+import com.example.docsigning.cache.RefreshLease;
+import com.example.docsigning.digicert.CertificateRegistry;
+import com.example.docsigning.digicert.DigiCertClient;
+import com.example.docsigning.digicert.NoMatchingCertificateException;
+import com.example.docsigning.metrics.LatencyHistogram;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.BatchSignResult;
+import com.example.docsigning.model.CachedCertificate;
 import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.DetachedSignedDocument;
 import com.example.docsigning.model.DigiCertCertificateSummary;
+import com.example.docsigning.model.MerkleSignedDocument;
 import com.example.docsigning.model.SignedDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class DocumentSigningOrchestrator {
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class DocumentSigningOrchestrator implements AutoCloseable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentSigningOrchestrator.class);
+    private static final long DEFAULT_FETCH_WAIT_TIMEOUT_MILLIS = 45_000L;
+    private static final int STREAMING_WINDOW_PER_THREAD = 4;
+    private static final int DEFAULT_SIGNING_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_IO_POOL_SIZE = 4;
+    private static final long LEASE_POLL_MILLIS = 100L;
 
-    private final RedisCertificateCache redisCache;
-    private final DigiCertApiClient digicertApiClient;
+    private final CertificateCache redisCache;
+    private final DigiCertClient digicertApiClient;
+    private final CertificateRegistry certificateRegistry;
     private final CertificateArchiveService archiveService;
     private final CertificateBasedSigner signer;
+    private final CertificateSnapshotStore snapshotStore;
+    private final long fetchWaitTimeoutMillis;
+    private final ConcurrentMap<CertificateSelector, CertificateFetchCoalescer> fetchCoalescers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CertificateSelector, CachedCertificate> current = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CertificateSelector, String> snapshotFingerprints = new ConcurrentHashMap<>();
+    private final ExecutorService signingPool;
+    private final ExecutorService ioPool;
+    private final int signingPoolSize;
+    private final int signingQueueCapacity;
+    private final LongAdder localHits = SigningMetrics.shared().counter(SigningMetrics.LOCAL_CACHE_HIT);
+    private final LongAdder localMisses = SigningMetrics.shared().counter(SigningMetrics.LOCAL_CACHE_MISS);
+    private final LongAdder leaseWaits = SigningMetrics.shared().counter("refresh_lease.waits");
+    private final LongAdder rotationEvents = SigningMetrics.shared().counter("certificate.rotation_events");
+    private final LatencyHistogram signDocumentLatency = SigningMetrics.shared().histogram(SigningMetrics.SIGN_DOCUMENT);
+    private volatile AutoCloseable rotationSubscription;
 
-    public DocumentSigningOrchestrator(RedisCertificateCache redisCache,
-                                       DigiCertApiClient digicertApiClient,
+    public DocumentSigningOrchestrator(CertificateCache redisCache,
+                                       DigiCertClient digicertApiClient,
                                        CertificateArchiveService archiveService,
                                        CertificateBasedSigner signer) {
+        this(redisCache, digicertApiClient, archiveService, signer, DEFAULT_FETCH_WAIT_TIMEOUT_MILLIS,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public DocumentSigningOrchestrator(CertificateCache redisCache,
+                                       DigiCertClient digicertApiClient,
+                                       CertificateArchiveService archiveService,
+                                       CertificateBasedSigner signer,
+                                       long fetchWaitTimeoutMillis,
+                                       int signingPoolSize) {
+        this(redisCache, digicertApiClient, archiveService, signer, fetchWaitTimeoutMillis, signingPoolSize,
+                DEFAULT_SIGNING_QUEUE_CAPACITY, DEFAULT_IO_POOL_SIZE);
+    }
+
+    /**
+     * @param signingPoolSize      CPU-bound RSA workers, normally one per core
+     * @param signingQueueCapacity signing tasks allowed to wait for a worker; further submissions are rejected
+     * @param ioPoolSize           threads for Redis and DigiCert calls made on behalf of async callers
+     */
+    public DocumentSigningOrchestrator(CertificateCache redisCache,
+                                       DigiCertClient digicertApiClient,
+                                       CertificateArchiveService archiveService,
+                                       CertificateBasedSigner signer,
+                                       long fetchWaitTimeoutMillis,
+                                       int signingPoolSize,
+                                       int signingQueueCapacity,
+                                       int ioPoolSize) {
+        this(redisCache, digicertApiClient, archiveService, signer, fetchWaitTimeoutMillis, signingPoolSize,
+                signingQueueCapacity, ioPoolSize, null);
+    }
+
+    /**
+     * @param snapshotStore keeps an on-disk copy of every bundle this node loads, for {@link #restoreSnapshot};
+     *                      {@code null} disables snapshots
+     */
+    public DocumentSigningOrchestrator(CertificateCache redisCache,
+                                       DigiCertClient digicertApiClient,
+                                       CertificateArchiveService archiveService,
+                                       CertificateBasedSigner signer,
+                                       long fetchWaitTimeoutMillis,
+                                       int signingPoolSize,
+                                       int signingQueueCapacity,
+                                       int ioPoolSize,
+                                       CertificateSnapshotStore snapshotStore) {
         this.redisCache = redisCache;
         this.digicertApiClient = digicertApiClient;
+        this.certificateRegistry = new CertificateRegistry(digicertApiClient, redisCache.getTtlSeconds() * 1000L);
         this.archiveService = archiveService;
         this.signer = signer;
+        this.snapshotStore = snapshotStore;
+        this.fetchWaitTimeoutMillis = fetchWaitTimeoutMillis;
+        this.signingPoolSize = signingPoolSize;
+        this.signingQueueCapacity = signingQueueCapacity;
+        this.signingPool = newPool("document-signer-", signingPoolSize, new ArrayBlockingQueue<>(signingQueueCapacity));
+        this.ioPool = newPool("certificate-io-", ioPoolSize, new LinkedBlockingQueue<>());
+        SigningMetrics.shared().gauge("certificate_fetch.originating", () -> fetchCoalescers.values().stream()
+                .mapToLong(CertificateFetchCoalescer::getOriginatingRequests).sum());
+        SigningMetrics.shared().gauge("certificate_fetch.coalesced", () -> fetchCoalescers.values().stream()
+                .mapToLong(CertificateFetchCoalescer::getCoalescedRequests).sum());
     }
 
     public SignedDocument signDocument(byte[] documentBytes) throws Exception {
-        LOGGER.info("Starting document signing workflow for payload with {} bytes", documentBytes.length);
-        CertificateBundle bundle = redisCache.get();
-        if (bundle == null) {
-            bundle = retrieveFromDigicert();
-            redisCache.put(bundle);
-        }
+        return signDocument(documentBytes, CertificateSelector.DEFAULT);
+    }
+
+    /**
+     * Signs with the certificate chosen by {@code selector}, e.g. a given entity's certificate for a given country.
+     */
+    public SignedDocument signDocument(byte[] documentBytes, CertificateSelector selector) throws Exception {
+        LOGGER.debug("Starting document signing workflow for payload with {} bytes ({})", documentBytes.length, selector);
+        long start = System.nanoTime();
+        CertificateBundle bundle = resolveBundle(selector);
 
         SignedDocument signedDocument = signer.sign(documentBytes, bundle);
-        LOGGER.info("Signing workflow completed");
+        signDocumentLatency.recordSince(start);
+        LOGGER.debug("Signing workflow completed");
+        return signedDocument;
+    }
+
+    public CompletableFuture<SignedDocument> signDocumentAsync(byte[] documentBytes) {
+        return signDocumentAsync(documentBytes, CertificateSelector.DEFAULT);
+    }
+
+    /**
+     * Non-blocking variant of {@link #signDocument(byte[], CertificateSelector)}. A bundle held in memory is used
+     * directly; otherwise Redis and DigiCert are consulted on the I/O pool. The RSA work then runs on the signing
+     * pool, so the calling thread never blocks. When the signing queue is full the future fails with
+     * {@link RejectedExecutionException}.
+     */
+    public CompletableFuture<SignedDocument> signDocumentAsync(byte[] documentBytes, CertificateSelector selector) {
+        long start = System.nanoTime();
+        CertificateBundle local = localBundle(selector);
+        CompletableFuture<CertificateBundle> bundle = local != null
+                ? CompletableFuture.completedFuture(local)
+                : submit(ioPool, () -> load(selector));
+        return bundle
+                .thenCompose(resolved -> submit(signingPool, () -> signer.sign(documentBytes, resolved)))
+                .whenComplete((signed, failure) -> signDocumentLatency.recordSince(start));
+    }
+
+    /**
+     * Signs a document read from {@code document} without buffering it; the stream is not closed.
+     */
+    public DetachedSignedDocument signDocument(InputStream document) throws Exception {
+        LOGGER.debug("Starting streaming document signing workflow");
+        DetachedSignedDocument signedDocument = signer.sign(document, resolveBundle());
+        LOGGER.debug("Signing workflow completed for {} streamed bytes", signedDocument.getDocumentLength());
+        return signedDocument;
+    }
+
+    /**
+     * Signs a document read from {@code document} without buffering it; the channel is not closed.
+     */
+    public DetachedSignedDocument signDocument(ReadableByteChannel document) throws Exception {
+        LOGGER.debug("Starting streaming document signing workflow");
+        DetachedSignedDocument signedDocument = signer.sign(document, resolveBundle());
+        LOGGER.debug("Signing workflow completed for {} streamed bytes", signedDocument.getDocumentLength());
+        return signedDocument;
+    }
+
+    /**
+     * Signs a file through memory-mapped windows, so large files never land on the heap.
+     */
+    public DetachedSignedDocument signDocument(Path document) throws Exception {
+        LOGGER.debug("Starting file signing workflow for {}", document);
+        DetachedSignedDocument signedDocument = signer.sign(document, resolveBundle());
+        LOGGER.debug("Signing workflow completed for {} ({} bytes)", document, signedDocument.getDocumentLength());
+        return signedDocument;
+    }
+
+    /**
+     * Signs a caller-computed SHA-256 digest; the result is identical to signing the full document.
+     */
+    public DetachedSignedDocument signDigest(byte[] sha256Digest) throws Exception {
+        return signDigest(sha256Digest, CertificateSelector.DEFAULT);
+    }
+
+    public DetachedSignedDocument signDigest(byte[] sha256Digest, CertificateSelector selector) throws Exception {
+        LOGGER.debug("Starting digest signing workflow ({})", selector);
+        DetachedSignedDocument signedDocument = signer.signDigest(sha256Digest, resolveBundle(selector));
+        LOGGER.debug("Signing workflow completed");
         return signedDocument;
     }
 
-    private CertificateBundle retrieveFromDigicert() throws Exception {
-        LOGGER.info("Retrieving certificate from DigiCert because cache is empty");
-        DigiCertCertificateSummary selected = digicertApiClient.selectCertificate();
+    /**
+     * Signs a batch on the signing pool. The certificate bundle is resolved once for the whole batch;
+     * results are returned in input order, with failures reported per document.
+     */
+    public List<BatchSignResult> signDocuments(List<byte[]> documents) throws Exception {
+        LOGGER.info("Starting batch signing workflow for {} documents", documents.size());
+        List<BatchSignResult> results = new ArrayList<>(documents.size());
+        signDocuments(documents.iterator(), results::add);
+        return results;
+    }
+
+    /**
+     * Streaming variant of {@link #signDocuments(List)}: pulls documents from {@code documents} as workers free up,
+     * keeping a bounded number in flight, and hands each result to {@code resultConsumer} in input order.
+     */
+    public void signDocuments(Iterator<byte[]> documents, Consumer<BatchSignResult> resultConsumer) throws Exception {
+        CertificateBundle bundle = resolveBundle();
+        // The signing pool is shared with async callers, so the window alone cannot keep its queue from filling up;
+        // a document the pool rejects is signed on the calling thread instead (see submitBatchItem).
+        int window = (int) Math.min((long) signingPoolSize * STREAMING_WINDOW_PER_THREAD,
+                (long) signingPoolSize + signingQueueCapacity);
+        Deque<Future<SignedDocument>> inFlight = new ArrayDeque<>(window);
+        int nextIndex = 0;
+        int submitted = 0;
+
+        while (documents.hasNext()) {
+            byte[] document = documents.next();
+            inFlight.addLast(submitBatchItem(() -> signer.sign(document, bundle)));
+            submitted++;
+            if (inFlight.size() >= window) {
+                resultConsumer.accept(awaitResult(nextIndex++, inFlight.removeFirst()));
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            resultConsumer.accept(awaitResult(nextIndex++, inFlight.removeFirst()));
+        }
+        LOGGER.info("Streaming batch signing workflow completed for {} documents", submitted);
+    }
+
+    /**
+     * Signs a batch with a single signature over the Merkle root of the documents' SHA-256 digests; each result
+     * carries that signature and the document's inclusion proof, in input order.
+     */
+    public List<MerkleSignedDocument> signDocumentsMerkle(List<byte[]> documents) throws Exception {
+        return signDocumentsMerkle(documents, CertificateSelector.DEFAULT);
+    }
+
+    public List<MerkleSignedDocument> signDocumentsMerkle(List<byte[]> documents, CertificateSelector selector)
+            throws Exception {
+        LOGGER.info("Starting Merkle batch signing workflow for {} documents ({})", documents.size(), selector);
+        List<MerkleSignedDocument> signed = signer.signMerkleBatch(documents, resolveBundle(selector));
+        LOGGER.info("Merkle batch signing workflow completed for {} documents", signed.size());
+        return signed;
+    }
+
+    public CachedCertificate refreshCertificate(long minRemainingMillis) throws Exception {
+        return refreshCertificate(CertificateSelector.DEFAULT, minRemainingMillis);
+    }
+
+    /**
+     * Makes sure this node holds a bundle for {@code selector} with more than {@code minRemainingMillis} left before
+     * it expires. A bundle already renewed in Redis by another node is adopted as-is; otherwise it is re-fetched from
+     * DigiCert. The new bundle replaces the in-memory one atomically, so signing requests are never blocked by the refresh.
+     */
+    public CachedCertificate refreshCertificate(CertificateSelector selector, long minRemainingMillis) throws Exception {
+        fetchCoalescer(selector).fetch(() -> {
+            CachedCertificate cached = redisCache.getWithExpiry(selector);
+            if (cached != null && cached.remainingMillis(System.currentTimeMillis()) > minRemainingMillis) {
+                LOGGER.info("Certificate bundle for {} in Redis was already renewed; adopting it", selector);
+                install(selector, cached);
+                return cached.getBundle();
+            }
+            return fetchAndStore(selector, minRemainingMillis);
+        });
+        return current.get(selector);
+    }
+
+    /**
+     * Adopts the on-disk snapshot of {@code selector}'s bundle if this node has no bundle for it yet, so it can sign
+     * before Redis or DigiCert have answered. The snapshot is used at most until the certificate's {@code notAfter};
+     * the next refresh replaces it. Returns whether a snapshot was adopted.
+     */
+    public boolean restoreSnapshot(CertificateSelector selector) {
+        if (snapshotStore == null) {
+            return false;
+        }
+        CachedCertificate snapshot = snapshotStore.load(selector);
+        if (snapshot == null) {
+            return false;
+        }
+        snapshotFingerprints.put(selector, snapshot.getBundle().getFingerprint());
+        return current.putIfAbsent(selector, snapshot) == null;
+    }
+
+    /**
+     * Selections this node has signed with so far; the default selection is always included.
+     */
+    public Set<CertificateSelector> getActiveSelectors() {
+        Set<CertificateSelector> selectors = new HashSet<>(current.keySet());
+        selectors.add(CertificateSelector.DEFAULT);
+        return selectors;
+    }
+
+    /**
+     * Subscribes to certificate rotations announced by other nodes; each one drops the local bundle and parsed
+     * key material so the next request reloads the new certificate from Redis.
+     */
+    public void listenForRotations() {
+        rotationSubscription = redisCache.subscribeToRotations(this::onRotation);
+    }
+
+    public CertificateBasedSigner getSigner() {
+        return signer;
+    }
+
+    public CertificateFetchCoalescer getFetchCoalescer() {
+        return fetchCoalescer(CertificateSelector.DEFAULT);
+    }
+
+    @Override
+    public void close() {
+        signingPool.shutdown();
+        ioPool.shutdown();
+        AutoCloseable subscription = rotationSubscription;
+        if (subscription != null) {
+            try {
+                subscription.close();
+            } catch (Exception e) {
+                LOGGER.debug("Failed to close certificate rotation subscription", e);
+            }
+        }
+    }
+
+    /**
+     * Queues one batch document on the signing pool, or signs it on the calling thread when the pool rejects it, which
+     * also slows the batch down to what the shared pool can take. Once the orchestrator is closed the document fails.
+     */
+    private Future<SignedDocument> submitBatchItem(Callable<SignedDocument> task) {
+        try {
+            return signingPool.submit(task);
+        } catch (RejectedExecutionException e) {
+            FutureTask<SignedDocument> callerRuns = new FutureTask<>(signingPool.isShutdown() ? () -> {
+                throw e;
+            } : task);
+            callerRuns.run();
+            return callerRuns;
+        }
+    }
+
+    private BatchSignResult awaitResult(int index, Future<SignedDocument> future) throws InterruptedException {
+        try {
+            return BatchSignResult.success(index, future.get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return BatchSignResult.failure(index, cause instanceof Exception ? (Exception) cause : e);
+        }
+    }
+
+    private static ExecutorService newPool(String threadPrefix, int size, BlockingQueue<Runnable> queue) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code task} on {@code executor}; a rejected submission fails the returned future instead of throwing
+     * at the caller.
+     */
+    private static <T> CompletableFuture<T> submit(ExecutorService executor, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private CertificateFetchCoalescer fetchCoalescer(CertificateSelector selector) {
+        return fetchCoalescers.computeIfAbsent(selector, ignored -> new CertificateFetchCoalescer(fetchWaitTimeoutMillis));
+    }
+
+    private CertificateBundle resolveBundle() throws Exception {
+        return resolveBundle(CertificateSelector.DEFAULT);
+    }
+
+    /**
+     * The bundle requests for {@code selector} are signed with, loading it from Redis or DigiCert when this node holds
+     * no valid one.
+     */
+    public CertificateBundle resolveBundle(CertificateSelector selector) throws Exception {
+        CertificateBundle local = localBundle(selector);
+        if (local != null) {
+            return local;
+        }
+        return load(selector);
+    }
+
+    /**
+     * Loads {@code selector}'s bundle through its coalescer. A selection this node never held is first checked
+     * against the certificate index, so selections that match nothing create no coalescer, Redis keys or leases.
+     *
+     * @throws NoMatchingCertificateException if no certificate matches {@code selector}
+     */
+    private CertificateBundle load(CertificateSelector selector) throws Exception {
+        if (!current.containsKey(selector) && !certificateRegistry.hasMatch(selector)) {
+            throw new NoMatchingCertificateException(selector);
+        }
+        return fetchCoalescer(selector).fetch(() -> loadOnMiss(selector));
+    }
+
+    /**
+     * The in-memory bundle for {@code selector} if it is still valid, otherwise {@code null}.
+     */
+    private CertificateBundle localBundle(CertificateSelector selector) {
+        CachedCertificate local = current.get(selector);
+        if (local != null && local.isValidAt(System.currentTimeMillis())) {
+            localHits.increment();
+            return local.getBundle();
+        }
+        localMisses.increment();
+        return null;
+    }
+
+    private CertificateBundle loadOnMiss(CertificateSelector selector) throws Exception {
+        CachedCertificate cached = redisCache.getWithExpiry(selector);
+        if (cached != null) {
+            install(selector, cached);
+            return cached.getBundle();
+        }
+        return fetchAndStore(selector, 0);
+    }
+
+    /**
+     * Fetches from DigiCert under the Redis refresh lease so that, across all nodes, one fetch happens per renewal.
+     * Nodes that do not get the lease wait for the holder's bundle to appear in Redis; if it does not show up within
+     * the lease duration they compete for the lease again, so a holder that died is replaced by exactly one node.
+     * Bundles are only ever written under a lease, fenced.
+     */
+    private CertificateBundle fetchAndStore(CertificateSelector selector, long minRemainingMillis) throws Exception {
+        while (true) {
+            RefreshLease lease = redisCache.tryAcquireRefreshLease(selector);
+            if (lease != null) {
+                return fetchUnderLease(selector, lease);
+            }
+            leaseWaits.increment();
+            CachedCertificate renewed = awaitRenewal(selector, minRemainingMillis);
+            if (renewed != null) {
+                install(selector, renewed);
+                return renewed.getBundle();
+            }
+            LOGGER.warn("Refresh lease holder did not store a certificate for {} in time; trying to take over the lease",
+                    selector);
+        }
+    }
+
+    private CertificateBundle fetchUnderLease(CertificateSelector selector, RefreshLease lease) throws Exception {
+        try {
+            CachedCertificate stored = redisCache.put(retrieveFromDigicert(selector), lease);
+            if (stored == null) {
+                // A newer lease holder already wrote; its bundle wins.
+                stored = redisCache.getWithExpiry(selector);
+                if (stored == null) {
+                    throw new IllegalStateException("Certificate for " + selector + " vanished from Redis after a fenced write");
+                }
+            }
+            install(selector, stored);
+            return stored.getBundle();
+        } finally {
+            redisCache.releaseRefreshLease(lease);
+        }
+    }
+
+    private CachedCertificate awaitRenewal(CertificateSelector selector, long minRemainingMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + redisCache.getRefreshLeaseMillis();
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(LEASE_POLL_MILLIS);
+            CachedCertificate cached = redisCache.getWithExpiry(selector);
+            if (cached != null && cached.remainingMillis(System.currentTimeMillis()) > minRemainingMillis) {
+                LOGGER.info("Adopted certificate for {} stored by the refresh lease holder", selector);
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes {@code cached} the bundle this node signs with and, when it is a certificate not yet snapshotted, writes
+     * the snapshot on the I/O pool so the request does not wait for the disk.
+     */
+    private void install(CertificateSelector selector, CachedCertificate cached) {
+        current.put(selector, cached);
+        if (snapshotStore == null) {
+            return;
+        }
+        String fingerprint = cached.getBundle().getFingerprint();
+        String previous = snapshotFingerprints.put(selector, fingerprint);
+        if (fingerprint.equals(previous)) {
+            return;
+        }
+        try {
+            ioPool.execute(() -> {
+                try {
+                    snapshotStore.save(selector, cached.getBundle());
+                } catch (Exception e) {
+                    snapshotFingerprints.remove(selector, fingerprint);
+                    LOGGER.warn("Failed to write certificate snapshot for {}", selector, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            snapshotFingerprints.remove(selector, fingerprint);
+            LOGGER.debug("Orchestrator is shut down; not writing certificate snapshot for {}", selector);
+        }
+    }
+
+    /**
+     * Drops {@code selector}'s bundle and its parsed key material unless the announced bundle is the one this node
+     * already signs with, as after a refresh-ahead that re-fetched the same certificate.
+     */
+    private void onRotation(CertificateSelector selector, String fingerprint) {
+        CachedCertificate local = current.get(selector);
+        if (local == null) {
+            return;
+        }
+        if (fingerprint != null && fingerprint.equals(local.getBundle().getFingerprint())) {
+            LOGGER.debug("Ignoring rotation of {} to the certificate this node already holds", selector);
+            return;
+        }
+        if (current.remove(selector, local)) {
+            rotationEvents.increment();
+            LOGGER.info("Certificate for {} rotated by another node ({})", selector, fingerprint == null ? "?" : fingerprint);
+            signer.invalidateKeyMaterial(local.getBundle());
+        }
+    }
+
+    private CertificateBundle retrieveFromDigicert(CertificateSelector selector) throws Exception {
+        LOGGER.info("Retrieving certificate for {} from DigiCert because cache is empty or due for renewal", selector);
+        DigiCertCertificateSummary selected = certificateRegistry.select(selector);
         byte[] archiveBytes = digicertApiClient.downloadCertificateZip(selected.getId());
         CertificateBundle bundle = archiveService.fromZip(archiveBytes);
         LOGGER.info("Certificate successfully extracted from DigiCert ZIP response");
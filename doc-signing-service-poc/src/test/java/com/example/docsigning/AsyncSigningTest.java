@@ -0,0 +1,141 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.RedisCertificateCache;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.model.BatchSignResult;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncSigningTest {
+
+    private final List<String> cacheThreads = new ArrayList<>();
+    private DocumentSigningOrchestrator orchestrator;
+
+    @After
+    public void close() {
+        if (orchestrator != null) {
+            orchestrator.close();
+        }
+    }
+
+    @Test
+    public void shouldLoadOnIoPoolAndSignOnSigningPool() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("async");
+        orchestrator = orchestrator(certificates.bundle(), new CertificateBasedSigner(), 1024);
+        byte[] document = "async payload".getBytes(StandardCharsets.UTF_8);
+
+        SignedDocument signed = orchestrator.signDocumentAsync(document).get(5, TimeUnit.SECONDS);
+
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(certificates.getCertificate());
+        verifier.update(document);
+        Assert.assertTrue(verifier.verify(signed.getSignature()));
+        Assert.assertEquals(1, cacheThreads.size());
+        Assert.assertTrue(cacheThreads.get(0), cacheThreads.get(0).startsWith("certificate-io-"));
+    }
+
+    @Test
+    public void shouldFailFutureWhenSigningQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CertificateBasedSigner blockingSigner = new CertificateBasedSigner() {
+            @Override
+            public SignedDocument sign(byte[] document, CertificateBundle bundle) throws Exception {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return super.sign(document, bundle);
+            }
+        };
+        orchestrator = orchestrator(TestCertificates.rsa("async").bundle(), blockingSigner, 1);
+        byte[] document = new byte[]{1};
+
+        CompletableFuture<SignedDocument> running = orchestrator.signDocumentAsync(document);
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<SignedDocument> queued = orchestrator.signDocumentAsync(document);
+        CompletableFuture<SignedDocument> rejected = orchestrator.signDocumentAsync(document);
+
+        try {
+            rejected.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected rejection");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        } finally {
+            release.countDown();
+        }
+        Assert.assertNotNull(running.get(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldSignBatchOnCallerWhenAsyncWorkFillsTheSigningPool() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CertificateBasedSigner blockingSigner = new CertificateBasedSigner() {
+            @Override
+            public SignedDocument sign(byte[] document, CertificateBundle bundle) throws Exception {
+                if (document[0] == 1) {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return super.sign(document, bundle);
+            }
+        };
+        orchestrator = orchestrator(TestCertificates.rsa("async").bundle(), blockingSigner, 1);
+
+        CompletableFuture<SignedDocument> running = orchestrator.signDocumentAsync(new byte[]{1});
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<SignedDocument> queued = orchestrator.signDocumentAsync(new byte[]{1});
+        try {
+            List<BatchSignResult> results = orchestrator.signDocuments(Arrays.asList(new byte[]{2}, new byte[]{3}));
+
+            Assert.assertEquals(2, results.size());
+            for (BatchSignResult result : results) {
+                Assert.assertTrue(String.valueOf(result.getError()), result.isSuccess());
+            }
+        } finally {
+            release.countDown();
+        }
+        Assert.assertNotNull(running.get(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private DocumentSigningOrchestrator orchestrator(CertificateBundle bundle, CertificateBasedSigner signer,
+                                                     int signingQueueCapacity) {
+        RedisCertificateCache cache = new RedisCertificateCache("127.0.0.1", 6379, "async-test", 3600) {
+            @Override
+            public CachedCertificate getWithExpiry(CertificateSelector selector) {
+                synchronized (cacheThreads) {
+                    cacheThreads.add(Thread.currentThread().getName());
+                }
+                return new CachedCertificate(bundle, System.currentTimeMillis() + 3_600_000L);
+            }
+        };
+        return new DocumentSigningOrchestrator(cache,
+                new DigiCertApiClient("http://127.0.0.1:9", "unused", 1, 1),
+                new CertificateArchiveService(),
+                signer,
+                1_000,
+                1,
+                signingQueueCapacity,
+                1);
+    }
+}
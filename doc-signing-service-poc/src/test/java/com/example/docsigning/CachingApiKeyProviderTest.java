@@ -0,0 +1,55 @@
+package com.example.docsigning;
+
+import com.example.docsigning.aws.CachingApiKeyProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingApiKeyProviderTest {
+
+    @Test
+    public void shouldLoadOnceAndServeFromMemory() {
+        AtomicInteger loads = new AtomicInteger();
+        try (CachingApiKeyProvider provider = new CachingApiKeyProvider(() -> "key-" + loads.incrementAndGet(), 60_000)) {
+            Assert.assertEquals("key-1", provider.getApiKey());
+            Assert.assertEquals("key-1", provider.getApiKey());
+            Assert.assertEquals(1, loads.get());
+        }
+    }
+
+    @Test
+    public void shouldPickUpRotatedKeyInBackground() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        try (CachingApiKeyProvider provider = new CachingApiKeyProvider(() -> "key-" + loads.incrementAndGet(), 50)) {
+            provider.start();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (loads.get() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertNotEquals("key-1", provider.getApiKey());
+        }
+    }
+
+    @Test
+    public void shouldKeepServingLastGoodKeyWhenReloadFails() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        try (CachingApiKeyProvider provider = new CachingApiKeyProvider(() -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new IllegalStateException("SSM unavailable");
+            }
+            return "good-key";
+        }, 20)) {
+            Assert.assertEquals("good-key", provider.getApiKey());
+            Thread.sleep(40);
+
+            Assert.assertEquals("good-key", provider.getApiKey());
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (loads.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(2, loads.get());
+            Assert.assertEquals("good-key", provider.getApiKey());
+        }
+    }
+}
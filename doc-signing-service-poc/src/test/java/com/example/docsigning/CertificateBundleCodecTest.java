@@ -0,0 +1,71 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.CertificateBundleCodec;
+import com.example.docsigning.model.CertificateBundle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class CertificateBundleCodecTest {
+
+    @Test
+    public void shouldRoundTripBundleAsDer() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("codec-test");
+        CertificateBundleCodec codec = new CertificateBundleCodec(true, false);
+
+        CertificateBundle decoded = codec.decode(codec.encode(certificates.bundle()));
+
+        Assert.assertArrayEquals(certificates.getCertificate().getEncoded(), decoded.getCrtBytes());
+        Assert.assertArrayEquals(certificates.getKeyPair().getPrivate().getEncoded(), decoded.getPrivateKeyBytes());
+    }
+
+    @Test
+    public void shouldRoundTripCompressedBundleWithoutKey() {
+        CertificateBundle bundle = new CertificateBundle("CRT".getBytes(StandardCharsets.UTF_8), null);
+        CertificateBundleCodec codec = new CertificateBundleCodec(true, true);
+
+        CertificateBundle decoded = codec.decode(codec.encode(bundle));
+
+        Assert.assertEquals("CRT", new String(decoded.getCrtBytes(), StandardCharsets.UTF_8));
+        Assert.assertNull(decoded.getPrivateKeyBytes());
+    }
+
+    @Test
+    public void shouldRoundTripIntermediateChain() {
+        byte[] first = {1, 2, 3};
+        byte[] second = {4, 5};
+        CertificateBundle bundle = new CertificateBundle(new byte[]{9}, null, Arrays.asList(first, second));
+        CertificateBundleCodec codec = new CertificateBundleCodec(true, true);
+
+        CertificateBundle decoded = codec.decode(codec.encode(bundle));
+
+        Assert.assertEquals(2, decoded.getChain().size());
+        Assert.assertArrayEquals(first, decoded.getChain().get(0));
+        Assert.assertArrayEquals(second, decoded.getChain().get(1));
+    }
+
+    @Test
+    public void shouldWritePemInLegacyTextEncoding() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("legacy-text");
+        CertificateBundle fromZip = new CertificateBundle(certificates.getCertificate().getEncoded(),
+                certificates.getKeyPair().getPrivate().getEncoded());
+
+        CertificateBundle legacy = CertificateBundle.deserialize(
+                new String(new CertificateBundleCodec(false, false).encode(fromZip), StandardCharsets.US_ASCII));
+
+        Assert.assertArrayEquals(certificates.certificatePem(), legacy.getCrtBytes());
+        Assert.assertArrayEquals(certificates.privateKeyPem(), legacy.getPrivateKeyBytes());
+    }
+
+    @Test
+    public void shouldStillReadLegacyTextEncoding() {
+        CertificateBundle bundle = new CertificateBundle("CRT".getBytes(StandardCharsets.UTF_8), "KEY".getBytes(StandardCharsets.UTF_8));
+
+        CertificateBundle decoded = new CertificateBundleCodec(true, false)
+                .decode(bundle.serialize().getBytes(StandardCharsets.US_ASCII));
+
+        Assert.assertEquals("KEY", new String(decoded.getPrivateKeyBytes(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.docsigning;
+
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.service.CertificateFetchCoalescer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CertificateFetchCoalescerTest {
+
+    @Test
+    public void shouldRunOneFetchForConcurrentMisses() throws Exception {
+        CertificateFetchCoalescer coalescer = new CertificateFetchCoalescer(5_000);
+        CertificateBundle bundle = new CertificateBundle("CRT".getBytes(StandardCharsets.UTF_8), null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<CertificateBundle>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> coalescer.fetch(() -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return bundle;
+                })));
+            }
+            while (coalescer.getOriginatingRequests() + coalescer.getCoalescedRequests() < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<CertificateBundle> result : results) {
+                Assert.assertSame(bundle, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, coalescer.getOriginatingRequests());
+        Assert.assertEquals(callers - 1, coalescer.getCoalescedRequests());
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void shouldTimeOutWaitersOfSlowFetch() throws Exception {
+        CertificateFetchCoalescer coalescer = new CertificateFetchCoalescer(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> coalescer.fetch(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            }));
+            started.await();
+            coalescer.fetch(() -> null);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReleaseWaitersWhenFetchFailsWithError() throws Exception {
+        CertificateFetchCoalescer coalescer = new CertificateFetchCoalescer(5_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<CertificateBundle> failing = executor.submit(() -> coalescer.fetch(() -> {
+                started.countDown();
+                release.await();
+                throw new NoClassDefFoundError("bouncycastle");
+            }));
+            started.await();
+            Future<CertificateBundle> waiter = executor.submit(() -> coalescer.fetch(() -> null));
+            while (coalescer.getCoalescedRequests() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            try {
+                waiter.get(1, TimeUnit.SECONDS);
+                Assert.fail("waiter should see the fetch's error");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof NoClassDefFoundError);
+            }
+            try {
+                failing.get();
+                Assert.fail("fetch should rethrow its error");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof NoClassDefFoundError);
+            }
+            Assert.assertNull(coalescer.fetch(() -> null));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
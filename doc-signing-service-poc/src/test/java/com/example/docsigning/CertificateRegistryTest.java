@@ -0,0 +1,99 @@
+package com.example.docsigning;
+
+import com.example.docsigning.digicert.CertificateRegistry;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.digicert.DigiCertClient;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.DigiCertCertificateSummary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CertificateRegistryTest {
+
+    private final AtomicInteger listCalls = new AtomicInteger();
+
+    private final DigiCertApiClient client = new DigiCertApiClient("http://127.0.0.1:9", "unused", 1, 1) {
+        @Override
+        public void forEachCertificate(CertificateVisitor visitor) throws IOException {
+            listCalls.incrementAndGet();
+            visitAll(visitor,
+                    summary(1, "DE", "Acme GmbH", "issued"),
+                    summary(2, "FR", "Acme SAS", "expired"),
+                    summary(3, "FR", "Acme SAS", "issued"),
+                    summary(4, "FR", "Other SARL", "issued"));
+        }
+    };
+
+    @Test
+    public void shouldTellWhetherSelectionHasCertificate() throws Exception {
+        CertificateRegistry registry = new CertificateRegistry(client, 60_000);
+
+        Assert.assertTrue(registry.hasMatch(CertificateSelector.of("FR", "Other SARL", null)));
+        Assert.assertFalse(registry.hasMatch(CertificateSelector.of("ZZ", null, null)));
+        Assert.assertFalse(registry.hasMatch(CertificateSelector.of("DE", "Acme SAS", null)));
+        Assert.assertEquals(1, listCalls.get());
+    }
+
+    @Test
+    public void shouldSelectByCountryAndOrganizationPreferringIssued() throws Exception {
+        CertificateRegistry registry = new CertificateRegistry(client, 60_000);
+
+        Assert.assertEquals(3, registry.select(CertificateSelector.of("fr", "acme sas", null)).getId());
+        Assert.assertEquals(4, registry.select(CertificateSelector.of("FR", "Other SARL", null)).getId());
+        Assert.assertEquals(1, registry.select(CertificateSelector.of("DE", null, null)).getId());
+        Assert.assertEquals(1, listCalls.get());
+    }
+
+    @Test
+    public void shouldKeepLegacyFallbackForDefaultSelector() throws Exception {
+        CertificateRegistry registry = new CertificateRegistry(new DigiCertApiClient("http://127.0.0.1:9", "unused", 1, 1) {
+            @Override
+            public void forEachCertificate(CertificateVisitor visitor) throws IOException {
+                listCalls.incrementAndGet();
+                visitAll(visitor, summary(7, "US", "Acme Inc", "pending"), summary(8, "US", "Acme Inc", "issued"));
+            }
+        }, 60_000);
+
+        Assert.assertEquals(8, registry.select(CertificateSelector.DEFAULT).getId());
+        Assert.assertEquals(8, registry.select(CertificateSelector.of("US", null, null)).getId());
+        Assert.assertEquals(1, listCalls.get());
+    }
+
+    @Test
+    public void shouldStreamDefaultSelectionUntilIssuedFrenchCertificate() throws Exception {
+        CertificateRegistry registry = new CertificateRegistry(client, 60_000);
+
+        Assert.assertEquals(3, registry.select(CertificateSelector.DEFAULT).getId());
+        Assert.assertEquals(3, registry.select(CertificateSelector.DEFAULT).getId());
+        Assert.assertEquals(1, listCalls.get());
+
+        Assert.assertEquals(1, registry.select(CertificateSelector.of("DE", null, null)).getId());
+        Assert.assertEquals(2, listCalls.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailWhenNothingMatches() throws Exception {
+        new CertificateRegistry(client, 60_000).select(CertificateSelector.of("IT", null, null));
+    }
+
+    private static void visitAll(DigiCertClient.CertificateVisitor visitor, DigiCertCertificateSummary... certificates)
+            throws IOException {
+        for (DigiCertCertificateSummary certificate : certificates) {
+            if (!visitor.visit(certificate)) {
+                return;
+            }
+        }
+    }
+
+    private static DigiCertCertificateSummary summary(long id, String country, String organization, String status) {
+        DigiCertCertificateSummary summary = new DigiCertCertificateSummary();
+        summary.setId(id);
+        summary.setCountry(country);
+        summary.setOrganization(organization);
+        summary.setStatus(status);
+        return summary;
+    }
+}
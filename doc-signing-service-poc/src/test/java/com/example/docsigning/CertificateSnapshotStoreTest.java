@@ -0,0 +1,159 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.CertificateBundleCodec;
+import com.example.docsigning.cache.CertificateSnapshotStore;
+import com.example.docsigning.digicert.DigiCertClient;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.DigiCertCertificateSummary;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class CertificateSnapshotStoreTest {
+
+    /** Snapshots hold the bundle in the binary Redis encoding, i.e. as DER. */
+    private static final CertificateBundleCodec CODEC = new CertificateBundleCodec(true, false);
+
+    private static final byte[] KEY = Arrays.copyOf("snapshot-test-key-0123456789abcd".getBytes(), 32);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreSavedBundleUntilNotAfter() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("snapshot");
+        CertificateSnapshotStore store = new CertificateSnapshotStore(temporaryFolder.getRoot().toPath(), KEY);
+
+        store.save(CertificateSelector.DEFAULT, certificates.bundle());
+        CachedCertificate restored = store.load(CertificateSelector.DEFAULT);
+
+        Assert.assertNotNull(restored);
+        Assert.assertEquals(CODEC.normalize(certificates.bundle()).getFingerprint(), restored.getBundle().getFingerprint());
+        Assert.assertEquals(certificates.getCertificate().getNotAfter().getTime(), restored.getExpiresAtMillis());
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void shouldNeverUseSnapshotPastNotAfter() throws Exception {
+        TestCertificates expired = TestCertificates.rsaValidUntil("expired",
+                new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+        CertificateSnapshotStore store = new CertificateSnapshotStore(temporaryFolder.getRoot().toPath(), KEY);
+
+        store.save(CertificateSelector.DEFAULT, expired.bundle());
+
+        Assert.assertNull(store.load(CertificateSelector.DEFAULT));
+    }
+
+    @Test
+    public void shouldRejectSnapshotWithWrongKeyOrTamperedBytes() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        new CertificateSnapshotStore(directory, KEY).save(CertificateSelector.DEFAULT, TestCertificates.rsa("tamper").bundle());
+
+        Assert.assertNull(new CertificateSnapshotStore(directory, new byte[32]).load(CertificateSelector.DEFAULT));
+
+        Path snapshot = directory.resolve("default.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 20] ^= 1;
+        Files.write(snapshot, bytes);
+        Assert.assertNull(new CertificateSnapshotStore(directory, KEY).load(CertificateSelector.DEFAULT));
+    }
+
+    @Test
+    public void shouldNotServeSnapshotOfAnotherSelection() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        CertificateSnapshotStore store = new CertificateSnapshotStore(directory, KEY);
+        CertificateSelector german = CertificateSelector.of("DE", null, null);
+        store.save(CertificateSelector.DEFAULT, TestCertificates.rsa("fr").bundle());
+        store.save(german, TestCertificates.rsa("de").bundle());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Path germanFile = files.filter(path -> !path.endsWith("default.snapshot")).findFirst().get();
+            Files.copy(germanFile, directory.resolve("default.snapshot"), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Assert.assertNull(store.load(CertificateSelector.DEFAULT));
+        Assert.assertNotNull(store.load(german));
+    }
+
+    @Test
+    public void shouldSignFromSnapshotWhileRedisAndDigiCertAreDown() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("cold-start").bundle();
+        Path directory = temporaryFolder.getRoot().toPath();
+
+        try (InMemoryCertificateCache cache = new InMemoryCertificateCache(bundle, 3600);
+             DocumentSigningOrchestrator first = orchestrator(cache, directory)) {
+            first.signDocument(new byte[]{1});
+            awaitSnapshot(directory.resolve("default.snapshot"));
+        }
+
+        try (InMemoryCertificateCache unavailable = new UnavailableCache();
+             DocumentSigningOrchestrator restarted = orchestrator(unavailable, directory)) {
+            Assert.assertTrue(restarted.restoreSnapshot(CertificateSelector.DEFAULT));
+            SignedDocument signed = restarted.signDocument(new byte[]{2});
+
+            Assert.assertArrayEquals(CODEC.normalize(bundle).getCrtBytes(), signed.getCertificate());
+        }
+    }
+
+    private static DocumentSigningOrchestrator orchestrator(InMemoryCertificateCache cache, Path directory) {
+        return new DocumentSigningOrchestrator(cache, new UnavailableDigiCert(), new CertificateArchiveService(),
+                new CertificateBasedSigner(), 5_000L, 2, 16, 2, new CertificateSnapshotStore(directory, KEY));
+    }
+
+    private static void awaitSnapshot(Path snapshot) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!Files.exists(snapshot) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(Files.exists(snapshot));
+    }
+
+    private static class UnavailableCache extends InMemoryCertificateCache {
+
+        UnavailableCache() {
+            super(3600, 5_000L);
+        }
+
+        @Override
+        public CachedCertificate getWithExpiry(CertificateSelector selector) {
+            throw new IllegalStateException("Redis is down");
+        }
+    }
+
+    private static class UnavailableDigiCert implements DigiCertClient {
+
+        @Override
+        public List<DigiCertCertificateSummary> listCertificates() throws IOException {
+            throw new IOException("DigiCert is down");
+        }
+
+        @Override
+        public void forEachCertificate(CertificateVisitor visitor) throws IOException {
+            throw new IOException("DigiCert is down");
+        }
+
+        @Override
+        public byte[] downloadCertificateZip(long certificateId) throws IOException {
+            throw new IOException("DigiCert is down");
+        }
+    }
+}
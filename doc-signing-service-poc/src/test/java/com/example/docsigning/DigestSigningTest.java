@@ -0,0 +1,33 @@
+package com.example.docsigning;
+
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.DetachedSignedDocument;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+public class DigestSigningTest {
+
+    @Test
+    public void shouldProduceSameSignatureAsFullDocumentSigning() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("digest-test").bundle();
+        byte[] document = "<invoice id=\"42\"/>".getBytes(StandardCharsets.UTF_8);
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(document);
+
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+        SignedDocument full = signer.sign(document, bundle);
+        DetachedSignedDocument prehashed = signer.signDigest(digest, bundle);
+
+        Assert.assertEquals("SHA256withRSA", prehashed.getSignatureType());
+        Assert.assertArrayEquals(full.getSignature(), prehashed.getSignature());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDigestOfWrongLength() throws Exception {
+        new CertificateBasedSigner().signDigest(new byte[20], TestCertificates.rsa("digest-test").bundle());
+    }
+}
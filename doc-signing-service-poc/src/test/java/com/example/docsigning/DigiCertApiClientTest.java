@@ -0,0 +1,89 @@
+package com.example.docsigning;
+
+import com.example.docsigning.digicert.CertificateRegistry;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.digicert.DigiCertHttpTransport;
+import com.example.docsigning.digicert.HttpEndpointPolicy;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.DigiCertCertificateSummary;
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DigiCertApiClientTest {
+
+    private static final int TOTAL = 5;
+
+    private final AtomicInteger pageRequests = new AtomicInteger();
+    private HttpServer server;
+    private DigiCertApiClient client;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/certificate", exchange -> {
+            pageRequests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            int offset = Integer.parseInt(query.replaceAll(".*offset=(\\d+).*", "$1"));
+            int limit = Integer.parseInt(query.replaceAll(".*limit=(\\d+).*", "$1"));
+
+            StringBuilder json = new StringBuilder("{\"certificates\":[");
+            for (int id = offset + 1; id <= Math.min(TOTAL, offset + limit); id++) {
+                if (id > offset + 1) {
+                    json.append(',');
+                }
+                json.append(String.format(Locale.ROOT,
+                        "{\"id\":%d,\"status\":\"issued\",\"product\":{\"name\":\"ignored\"},\"country\":\"%s\"}",
+                        id, id == 4 ? "FR" : "DE"));
+            }
+            json.append("],\"page\":{\"total\":").append(TOTAL).append(",\"limit\":").append(limit)
+                    .append(",\"offset\":").append(offset).append("}}");
+
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        client = new DigiCertApiClient(
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                "unused",
+                new DigiCertHttpTransport(new CircuitBreaker("test", 10, 60_000), 1, 5),
+                new HttpEndpointPolicy(1_000, 1_000, 1),
+                new HttpEndpointPolicy(1_000, 1_000, 1),
+                2);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldFollowPaginationUntilTotalIsReached() throws Exception {
+        List<DigiCertCertificateSummary> certificates = client.listCertificates();
+
+        Assert.assertEquals(TOTAL, certificates.size());
+        Assert.assertEquals(5, certificates.get(4).getId());
+        Assert.assertEquals(3, pageRequests.get());
+    }
+
+    @Test
+    public void shouldStopListingOnceFrenchCertificateIsFound() throws Exception {
+        DigiCertCertificateSummary selected = new CertificateRegistry(client, 60_000).select(CertificateSelector.DEFAULT);
+
+        Assert.assertEquals(4, selected.getId());
+        Assert.assertEquals(2, pageRequests.get());
+    }
+}
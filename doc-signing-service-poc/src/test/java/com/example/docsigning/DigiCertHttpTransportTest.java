@@ -0,0 +1,154 @@
+package com.example.docsigning;
+
+import com.example.docsigning.digicert.DigiCertHttpException;
+import com.example.docsigning.digicert.DigiCertHttpTransport;
+import com.example.docsigning.digicert.HttpEndpointPolicy;
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.example.docsigning.resilience.CircuitOpenException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+public class DigiCertHttpTransportTest {
+
+    private static final HttpEndpointPolicy POLICY = new HttpEndpointPolicy(1_000, 1_000, 3);
+
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/flaky", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            int status = flakyCalls.incrementAndGet() < 3 ? 503 : 200;
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("{\"certificates\":[]}".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+        server.createContext("/down", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.createContext("/forbidden", exchange -> {
+            exchange.sendResponseHeaders(403, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldRetryServerErrorsUntilSuccess() throws Exception {
+        byte[] body = transport(new CircuitBreaker("test", 10, 60_000)).get(baseUrl + "/flaky", Collections.emptyMap(), POLICY);
+
+        Assert.assertEquals("ok", new String(body, StandardCharsets.UTF_8));
+        Assert.assertEquals(3, flakyCalls.get());
+    }
+
+    @Test
+    public void shouldDecodeGzipResponses() throws Exception {
+        byte[] body = transport(new CircuitBreaker("test", 10, 60_000)).get(baseUrl + "/gzip", Collections.emptyMap(), POLICY);
+
+        Assert.assertEquals("{\"certificates\":[]}", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldNotRetryClientErrors() throws Exception {
+        try {
+            transport(new CircuitBreaker("test", 10, 60_000)).get(baseUrl + "/forbidden", Collections.emptyMap(), POLICY);
+            Assert.fail("Expected DigiCertHttpException");
+        } catch (DigiCertHttpException e) {
+            Assert.assertEquals(403, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void shouldFailFastOnceCircuitOpens() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 3, 60_000);
+        DigiCertHttpTransport transport = transport(circuitBreaker);
+        try {
+            transport.get(baseUrl + "/down", Collections.emptyMap(), POLICY);
+            Assert.fail("Expected DigiCertHttpException");
+        } catch (DigiCertHttpException e) {
+            Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+
+        try {
+            transport.get(baseUrl + "/flaky", Collections.emptyMap(), POLICY);
+            Assert.fail("Expected CircuitOpenException");
+        } catch (CircuitOpenException expected) {
+            Assert.assertEquals(0, flakyCalls.get());
+        }
+    }
+
+    @Test
+    public void shouldSettleHalfOpenTrialThatThrowsUnchecked() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, 50);
+        DigiCertHttpTransport transport = transport(circuitBreaker);
+        HttpEndpointPolicy once = new HttpEndpointPolicy(1_000, 1_000, 1);
+        try {
+            transport.get(baseUrl + "/down", Collections.emptyMap(), once);
+            Assert.fail("Expected DigiCertHttpException");
+        } catch (DigiCertHttpException expected) {
+            Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+        Thread.sleep(60);
+
+        try {
+            transport.get(baseUrl + "/gzip", Collections.emptyMap(), once, (body, length) -> {
+                throw new IllegalStateException("unreadable body");
+            });
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+    }
+
+    @Test
+    public void shouldGrantNewTrialWhenHalfOpenTrialIsLost() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, 50);
+        circuitBreaker.recordFailure();
+        Thread.sleep(60);
+        Assert.assertTrue(circuitBreaker.allowRequest());
+        Assert.assertFalse(circuitBreaker.allowRequest());
+
+        Thread.sleep(60);
+
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assert.assertTrue(circuitBreaker.allowRequest());
+        Assert.assertFalse(circuitBreaker.allowRequest());
+    }
+
+    private static DigiCertHttpTransport transport(CircuitBreaker circuitBreaker) {
+        return new DigiCertHttpTransport(circuitBreaker, 1, 5);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.docsigning;
+
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.digicert.DigiCertHttpTransport;
+import com.example.docsigning.digicert.HttpEndpointPolicy;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ExpiryStormTest {
+
+    @Test
+    public void shouldFetchOnceWhenEveryNodeSeesTheCertificateExpireTogether() throws Exception {
+        try (FakeDigiCertServer digicert = new FakeDigiCertServer(TestCertificates.rsa("storm"), 3);
+             InMemoryCertificateCache cache = new InMemoryCertificateCache(2, 5_000L);
+             DocumentSigningOrchestrator first = orchestrator(cache, digicert);
+             DocumentSigningOrchestrator second = orchestrator(cache, digicert)) {
+            digicert.setLatencyMillis(100);
+            first.signDocument(new byte[]{1});
+            second.signDocument(new byte[]{1});
+            Assert.assertEquals(1, digicert.getDownloadRequests());
+
+            // Both nodes hold the entry read from the shared cache, so their copies expire at the same instant.
+            Thread.sleep(2_100);
+            ExecutorService callers = Executors.newFixedThreadPool(16);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<SignedDocument>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                DocumentSigningOrchestrator node = i % 2 == 0 ? first : second;
+                results.add(callers.submit(() -> {
+                    go.await();
+                    return node.signDocument(new byte[]{2});
+                }));
+            }
+            go.countDown();
+            for (Future<SignedDocument> result : results) {
+                Assert.assertNotNull(result.get().getSignature());
+            }
+            callers.shutdown();
+
+            Assert.assertEquals(2, digicert.getDownloadRequests());
+            Assert.assertEquals(2, cache.getLeasesGranted());
+        }
+    }
+
+    @Test
+    public void shouldFetchOnceWhenTheLeaseHolderNeverStores() throws Exception {
+        try (FakeDigiCertServer digicert = new FakeDigiCertServer(TestCertificates.rsa("dead-holder"), 3);
+             InMemoryCertificateCache cache = new InMemoryCertificateCache(60, 1_000L);
+             DocumentSigningOrchestrator first = orchestrator(cache, digicert);
+             DocumentSigningOrchestrator second = orchestrator(cache, digicert);
+             DocumentSigningOrchestrator third = orchestrator(cache, digicert)) {
+            digicert.setLatencyMillis(100);
+            // A node took the lease and died before writing the bundle.
+            Assert.assertNotNull(cache.tryAcquireRefreshLease(CertificateSelector.DEFAULT));
+
+            ExecutorService callers = Executors.newFixedThreadPool(3);
+            List<Future<SignedDocument>> results = new ArrayList<>();
+            for (DocumentSigningOrchestrator node : new DocumentSigningOrchestrator[]{first, second, third}) {
+                results.add(callers.submit(() -> node.signDocument(new byte[]{1})));
+            }
+            for (Future<SignedDocument> result : results) {
+                Assert.assertNotNull(result.get().getSignature());
+            }
+            callers.shutdown();
+
+            Assert.assertEquals(1, digicert.getDownloadRequests());
+            Assert.assertEquals(2, cache.getLeasesGranted());
+        }
+    }
+
+    @Test
+    public void shouldSignThroughFakeDigiCertDespiteTransientFailures() throws Exception {
+        try (FakeDigiCertServer digicert = new FakeDigiCertServer(TestCertificates.rsa("flaky"), 3);
+             InMemoryCertificateCache cache = new InMemoryCertificateCache(60, 5_000L);
+             DocumentSigningOrchestrator orchestrator = orchestrator(cache, digicert)) {
+            digicert.setFailureRate(0.3);
+
+            Assert.assertNotNull(orchestrator.signDocument(new byte[]{1}).getSignature());
+        }
+    }
+
+    private static DocumentSigningOrchestrator orchestrator(InMemoryCertificateCache cache, FakeDigiCertServer digicert) {
+        return new DocumentSigningOrchestrator(
+                cache,
+                new DigiCertApiClient(
+                        digicert.getBaseUrl(),
+                        new StaticApiKeyProvider("test"),
+                        new DigiCertHttpTransport(new CircuitBreaker("test", 100, 1_000L), 1L, 5L),
+                        new HttpEndpointPolicy(1_000, 5_000, 20),
+                        new HttpEndpointPolicy(1_000, 5_000, 20),
+                        100),
+                new CertificateArchiveService(),
+                new CertificateBasedSigner());
+    }
+}
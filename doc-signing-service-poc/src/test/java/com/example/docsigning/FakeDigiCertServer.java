@@ -0,0 +1,152 @@
+package com.example.docsigning;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * In-process DigiCert CertCentral stand-in on an ephemeral local port. It serves a paged List Certificates response
+ * ({@code GET /certificate?offset=&limit=}) in which certificate 1 is the FR one, and a ZIP with the certificate and
+ * private key PEMs for every download ({@code GET /certificate/<id>/download}).
+ *
+ * <p>Every response can be delayed by {@link #setLatencyMillis} and a fraction of them turned into {@code 503} by
+ * {@link #setFailureRate}; both may be changed while the server runs.
+ */
+public final class FakeDigiCertServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int certificateCount;
+    private final byte[] archive;
+    private final LongAdder listRequests = new LongAdder();
+    private final LongAdder downloadRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+
+    public FakeDigiCertServer(TestCertificates certificates, int certificateCount) throws Exception {
+        this.certificateCount = certificateCount;
+        this.archive = zip(certificates.certificatePem(), certificates.privateKeyPem());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-digicert-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/certificate", this::handle);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Fraction, between 0 and 1, of requests answered with {@code 503 Service Unavailable}.
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public long getListRequests() {
+        return listRequests.sum();
+    }
+
+    public long getDownloadRequests() {
+        return downloadRequests.sum();
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            long delay = latencyMillis;
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            boolean download = exchange.getRequestURI().getPath().endsWith("/download");
+            if (download) {
+                downloadRequests.increment();
+            } else {
+                listRequests.increment();
+            }
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failedRequests.increment();
+                send(exchange, 503, "text/plain", "unavailable".getBytes(StandardCharsets.UTF_8));
+            } else if (download) {
+                send(exchange, 200, "application/zip", archive);
+            } else {
+                send(exchange, 200, "application/json", listPage(exchange.getRequestURI().getQuery()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        }
+    }
+
+    private byte[] listPage(String query) {
+        int offset = Integer.parseInt(query.replaceAll(".*offset=(\\d+).*", "$1"));
+        int limit = Integer.parseInt(query.replaceAll(".*limit=(\\d+).*", "$1"));
+        StringBuilder json = new StringBuilder("{\"certificates\":[");
+        for (int id = offset + 1; id <= Math.min(certificateCount, offset + limit); id++) {
+            if (id > offset + 1) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT,
+                    "{\"id\":%d,\"common_name\":\"cert-%d\",\"organization\":\"Example\","
+                            + "\"status\":\"issued\",\"country\":\"%s\"}",
+                    id, id, id == 1 ? "FR" : "DE"));
+        }
+        json.append("],\"page\":{\"total\":").append(certificateCount).append(",\"limit\":").append(limit)
+                .append(",\"offset\":").append(offset).append("}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] zip(byte[] certificatePem, byte[] privateKeyPem) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(out)) {
+            zos.putNextEntry(new ZipEntry("certificate.crt"));
+            zos.write(certificatePem);
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("private.key"));
+            zos.write(privateKeyPem);
+            zos.closeEntry();
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.CertificateCache;
+import com.example.docsigning.cache.RefreshLease;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis stand-in keeping bundles, refresh leases and signatures in memory with the same TTL, lease and fencing rules.
+ * One instance shared by several orchestrators plays the role of Redis for several nodes. Rotation subscriptions are
+ * accepted but never fire.
+ */
+public class InMemoryCertificateCache implements CertificateCache {
+
+    private final int ttlSeconds;
+    private final long refreshLeaseMillis;
+    private final ConcurrentMap<CertificateSelector, CachedCertificate> bundles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CertificateSelector, Long> fences = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CertificateSelector, RefreshLease> leases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CertificateSelector, Long> leaseExpiries = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> signatures = new ConcurrentHashMap<>();
+    private final AtomicLong fenceSequence = new AtomicLong();
+    private final AtomicLong leasesGranted = new AtomicLong();
+
+    public InMemoryCertificateCache(int ttlSeconds, long refreshLeaseMillis) {
+        this.ttlSeconds = ttlSeconds;
+        this.refreshLeaseMillis = refreshLeaseMillis;
+    }
+
+    /**
+     * A cache already holding {@code bundle} for the default selection.
+     */
+    public InMemoryCertificateCache(CertificateBundle bundle, int ttlSeconds) {
+        this(ttlSeconds, 30_000L);
+        put(CertificateSelector.DEFAULT, bundle);
+    }
+
+    @Override
+    public CachedCertificate getWithExpiry(CertificateSelector selector) {
+        CachedCertificate cached = bundles.get(selector);
+        return cached != null && cached.isValidAt(System.currentTimeMillis()) ? cached : null;
+    }
+
+    @Override
+    public CachedCertificate put(CertificateSelector selector, CertificateBundle bundle) {
+        CachedCertificate cached = new CachedCertificate(bundle, System.currentTimeMillis() + ttlSeconds * 1000L);
+        bundles.put(selector, cached);
+        return cached;
+    }
+
+    @Override
+    public synchronized CachedCertificate put(CertificateBundle bundle, RefreshLease lease) {
+        Long stored = fences.get(lease.getSelector());
+        if (stored != null && stored > lease.getFencingToken()) {
+            return null;
+        }
+        fences.put(lease.getSelector(), lease.getFencingToken());
+        return put(lease.getSelector(), bundle);
+    }
+
+    @Override
+    public synchronized RefreshLease tryAcquireRefreshLease(CertificateSelector selector) {
+        Long expiry = leaseExpiries.get(selector);
+        if (expiry != null && expiry > System.currentTimeMillis()) {
+            return null;
+        }
+        RefreshLease lease = new RefreshLease(selector, UUID.randomUUID().toString(), fenceSequence.incrementAndGet());
+        leases.put(selector, lease);
+        leaseExpiries.put(selector, System.currentTimeMillis() + refreshLeaseMillis);
+        leasesGranted.incrementAndGet();
+        return lease;
+    }
+
+    @Override
+    public synchronized void releaseRefreshLease(RefreshLease lease) {
+        if (leases.remove(lease.getSelector(), lease)) {
+            leaseExpiries.remove(lease.getSelector());
+        }
+    }
+
+    @Override
+    public long getRefreshLeaseMillis() {
+        return refreshLeaseMillis;
+    }
+
+    @Override
+    public AutoCloseable subscribeToRotations(RotationListener listener) {
+        return () -> { };
+    }
+
+    @Override
+    public byte[] getSignature(String id) {
+        return signatures.get(id);
+    }
+
+    @Override
+    public void putSignature(String id, byte[] signature, int ttlSeconds) {
+        signatures.put(id, signature);
+    }
+
+    @Override
+    public void prewarm(int connections) {
+    }
+
+    @Override
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Makes every stored bundle expire now, as if they had all been written at the same moment one TTL ago.
+     */
+    public void expireAll() {
+        long now = System.currentTimeMillis();
+        bundles.replaceAll((selector, cached) -> new CachedCertificate(cached.getBundle(), now));
+    }
+
+    public long getLeasesGranted() {
+        return leasesGranted.get();
+    }
+
+    @Override
+    public void close() {
+    }
+}
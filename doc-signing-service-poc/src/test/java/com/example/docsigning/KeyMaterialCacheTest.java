@@ -0,0 +1,68 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.KeyMaterialCache;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.model.SigningKeyMaterial;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+
+public class KeyMaterialCacheTest {
+
+    @Test
+    public void shouldReuseParsedMaterialForSameBundleContent() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("cache-test");
+        KeyMaterialCache cache = new KeyMaterialCache();
+
+        SigningKeyMaterial first = cache.resolve(certificates.bundle());
+        SigningKeyMaterial second = cache.resolve(certificates.bundle());
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(certificates.getKeyPair().getPrivate(), first.getPrivateKey());
+    }
+
+    @Test
+    public void shouldReplaceMaterialWhenBundleChanges() throws Exception {
+        KeyMaterialCache cache = new KeyMaterialCache();
+
+        SigningKeyMaterial first = cache.resolve(TestCertificates.rsa("first").bundle());
+        SigningKeyMaterial rotated = cache.resolve(TestCertificates.rsa("second").bundle());
+
+        Assert.assertNotEquals(first.getFingerprint(), rotated.getFingerprint());
+        Assert.assertTrue(rotated.getSubjectName().contains("second"));
+    }
+
+    @Test
+    public void shouldForgetOnlyTheInvalidatedBundle() throws Exception {
+        CertificateBundle rotated = TestCertificates.rsa("rotated").bundle();
+        CertificateBundle untouched = TestCertificates.rsa("untouched").bundle();
+        KeyMaterialCache cache = new KeyMaterialCache();
+        SigningKeyMaterial rotatedMaterial = cache.resolve(rotated);
+        SigningKeyMaterial untouchedMaterial = cache.resolve(untouched);
+
+        cache.invalidate(rotated.getFingerprint());
+
+        Assert.assertNotSame(rotatedMaterial, cache.resolve(rotated));
+        Assert.assertSame(untouchedMaterial, cache.resolve(untouched));
+    }
+
+    @Test
+    public void shouldProduceVerifiableSignatureFromCachedMaterial() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("signer-test");
+        CertificateBundle bundle = certificates.bundle();
+        byte[] document = "invoice".getBytes(StandardCharsets.UTF_8);
+
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+        signer.sign(document, bundle);
+        SignedDocument signed = signer.sign(document, bundle);
+
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(certificates.getCertificate());
+        verifier.update(document);
+        Assert.assertTrue(verifier.verify(signed.getSignature()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.docsigning;
+
+import com.example.docsigning.metrics.LatencyHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        assertWithin(500, histogram.getPercentileMicros(50));
+        assertWithin(990, histogram.getPercentileMicros(99));
+        Assert.assertEquals(1000, TimeUnit.NANOSECONDS.toMicros(histogram.getMaxNanos()));
+    }
+
+    @Test
+    public void shouldReportZeroWhenEmpty() {
+        Assert.assertEquals(0, new LatencyHistogram().getPercentileNanos(99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assert.assertTrue("expected ~" + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.25);
+    }
+}
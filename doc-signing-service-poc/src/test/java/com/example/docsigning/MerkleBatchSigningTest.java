@@ -0,0 +1,150 @@
+package com.example.docsigning;
+
+import com.example.docsigning.crypto.MerkleBatchVerifier;
+import com.example.docsigning.crypto.SigningEngines;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.MerkleSignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MerkleBatchSigningTest {
+
+    @Test
+    public void shouldVerifyEveryDocumentOfBatchesOfAnySize() throws Exception {
+        TestCertificates rsa = TestCertificates.rsa("merkle-rsa");
+        TestCertificates ec = TestCertificates.ec("merkle-ec");
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+
+        for (TestCertificates certificates : new TestCertificates[]{rsa, ec}) {
+            MerkleBatchVerifier verifier = new MerkleBatchVerifier(certificates.getCertificate());
+            for (int size : new int[]{1, 2, 3, 5, 10}) {
+                List<MerkleSignedDocument> signed = signer.signMerkleBatch(documents(size), certificates.bundle());
+
+                Assert.assertEquals(size, signed.size());
+                for (MerkleSignedDocument document : signed) {
+                    Assert.assertTrue("batch of " + size, verifier.verify(document));
+                    Assert.assertArrayEquals(signed.get(0).getSignature(), document.getSignature());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldSignRootWithPlainSignature() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("merkle-root");
+        List<MerkleSignedDocument> signed = new CertificateBasedSigner().signMerkleBatch(documents(4), certificates.bundle());
+
+        Signature verifier = Signature.getInstance(SigningEngines.RSA);
+        verifier.initVerify(certificates.getCertificate());
+        verifier.update(signed.get(0).getRoot());
+
+        Assert.assertEquals(SigningEngines.RSA, signed.get(0).getSignatureType());
+        Assert.assertTrue(verifier.verify(signed.get(0).getSignature()));
+    }
+
+    @Test
+    public void shouldRejectTamperedDocument() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("merkle-tamper");
+        List<MerkleSignedDocument> signed = new CertificateBasedSigner().signMerkleBatch(documents(5), certificates.bundle());
+        MerkleBatchVerifier verifier = new MerkleBatchVerifier(certificates.getCertificate());
+
+        Assert.assertTrue(verifier.verify(signed.get(2)));
+        Assert.assertFalse(verifier.verify(document(3), signed.get(2)));
+        Assert.assertFalse(verifier.verify("forged".getBytes(StandardCharsets.UTF_8), signed.get(2)));
+    }
+
+    @Test
+    public void shouldRejectProofOfAnotherDocument() throws Exception {
+        TestCertificates certificates = TestCertificates.ec("merkle-proof");
+        List<MerkleSignedDocument> signed = new CertificateBasedSigner().signMerkleBatch(documents(5), certificates.bundle());
+        MerkleSignedDocument first = signed.get(0);
+        MerkleSignedDocument swapped = new MerkleSignedDocument(first.getOriginalDocument(), first.getDocumentDigest(),
+                first.getRoot(), signed.get(1).getProof(), first.getSignature(), first.getCertificate(),
+                first.getSignatureType());
+
+        Assert.assertFalse(new MerkleBatchVerifier(certificates.getCertificate()).verify(swapped));
+    }
+
+    @Test
+    public void shouldRejectRootSignedByAnotherBatch() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("merkle-other");
+        CertificateBundle bundle = certificates.bundle();
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+        MerkleSignedDocument document = signer.signMerkleBatch(documents(3), bundle).get(0);
+        MerkleSignedDocument other = signer.signMerkleBatch(documents(4), bundle).get(0);
+        MerkleSignedDocument mixed = new MerkleSignedDocument(document.getOriginalDocument(),
+                document.getDocumentDigest(), document.getRoot(), document.getProof(), other.getSignature(),
+                document.getCertificate(), document.getSignatureType());
+
+        Assert.assertFalse(new MerkleBatchVerifier(certificates.getCertificate()).verify(mixed));
+    }
+
+    @Test
+    public void shouldBindRootToCertificateWithoutPrivateKey() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("merkle-no-key");
+        CertificateBundle bundle = new CertificateBundle(certificates.certificatePem(), null);
+
+        List<MerkleSignedDocument> signed = new CertificateBasedSigner().signMerkleBatch(documents(3), bundle);
+
+        Assert.assertEquals(MerkleSignedDocument.CERT_BOUND_ROOT_TYPE, signed.get(1).getSignatureType());
+        Assert.assertTrue(new MerkleBatchVerifier(certificates.getCertificate()).verifyAttestation(signed.get(1)));
+    }
+
+    @Test
+    public void shouldRejectForgedRootsAsSignatures() throws Exception {
+        TestCertificates trusted = TestCertificates.rsa("merkle-trusted");
+        TestCertificates forger = TestCertificates.rsa("merkle-forger");
+        MerkleBatchVerifier verifier = new MerkleBatchVerifier(trusted.getCertificate());
+
+        // Without the private key, anyone can produce a certificate-bound root for the trusted certificate.
+        MerkleSignedDocument bound = new CertificateBasedSigner()
+                .signMerkleBatch(documents(3), new CertificateBundle(trusted.certificatePem(), null)).get(1);
+        // A forger signs with their own key and embeds their own certificate.
+        MerkleSignedDocument signedByForger = new CertificateBasedSigner()
+                .signMerkleBatch(documents(3), forger.bundle()).get(1);
+
+        Assert.assertFalse(verifier.verify(bound));
+        Assert.assertFalse(verifier.verify(signedByForger));
+        Assert.assertFalse(verifier.verifyAttestation(new CertificateBasedSigner()
+                .signMerkleBatch(documents(3), new CertificateBundle(forger.certificatePem(), null)).get(1)));
+        Assert.assertTrue(new MerkleBatchVerifier(forger.getCertificate()).verify(signedByForger));
+    }
+
+    @Test
+    public void shouldCountBatchBytesOnceAsSigned() throws Exception {
+        List<byte[]> documents = documents(4);
+        long batchBytes = documents.stream().mapToLong(document -> document.length).sum();
+        CertificateBundle bundle = TestCertificates.rsa("merkle-bytes").bundle();
+        long before = SigningMetrics.shared().snapshot().get(SigningMetrics.BYTES_SIGNED);
+
+        new CertificateBasedSigner().signMerkleBatch(documents, bundle);
+
+        Assert.assertEquals(before + batchBytes, (long) SigningMetrics.shared().snapshot().get(SigningMetrics.BYTES_SIGNED));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyBatch() throws Exception {
+        new CertificateBasedSigner().signMerkleBatch(Collections.<byte[]>emptyList(),
+                TestCertificates.rsa("merkle-empty").bundle());
+    }
+
+    private static List<byte[]> documents(int count) {
+        List<byte[]> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(document(i));
+        }
+        return documents;
+    }
+
+    private static byte[] document(int index) {
+        return ("<invoice id=\"" + index + "\"/>").getBytes(StandardCharsets.UTF_8);
+    }
+}
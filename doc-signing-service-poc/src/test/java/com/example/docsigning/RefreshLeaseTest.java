@@ -0,0 +1,96 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.RedisCertificateCache;
+import com.example.docsigning.cache.RefreshLease;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RefreshLeaseTest {
+
+    @Test
+    public void shouldAdoptBundleStoredByLeaseHolderInsteadOfCallingDigiCert() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("lease").bundle();
+        AtomicInteger reads = new AtomicInteger();
+        RedisCertificateCache cache = new FakeCache() {
+            @Override
+            public CachedCertificate getWithExpiry(CertificateSelector selector) {
+                // Miss first; the lease holder's bundle appears on the second read.
+                return reads.incrementAndGet() < 2 ? null : new CachedCertificate(bundle, System.currentTimeMillis() + 60_000);
+            }
+
+            @Override
+            public RefreshLease tryAcquireRefreshLease(CertificateSelector selector) {
+                return null;
+            }
+        };
+
+        try (DocumentSigningOrchestrator orchestrator = orchestrator(cache)) {
+            Assert.assertNotNull(orchestrator.signDocument(new byte[]{1}).getSignature());
+            Assert.assertEquals(2, reads.get());
+        }
+    }
+
+    @Test
+    public void shouldReloadFromRedisAfterRotationEvent() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("rotation").bundle();
+        AtomicInteger reads = new AtomicInteger();
+        AtomicReference<RedisCertificateCache.RotationListener> listener = new AtomicReference<>();
+        RedisCertificateCache cache = new FakeCache() {
+            @Override
+            public CachedCertificate getWithExpiry(CertificateSelector selector) {
+                reads.incrementAndGet();
+                return new CachedCertificate(bundle, System.currentTimeMillis() + 60_000);
+            }
+
+            @Override
+            public AutoCloseable subscribeToRotations(RotationListener rotationListener) {
+                listener.set(rotationListener);
+                return () -> { };
+            }
+        };
+
+        try (DocumentSigningOrchestrator orchestrator = orchestrator(cache)) {
+            orchestrator.listenForRotations();
+            orchestrator.signDocument(new byte[]{1});
+            orchestrator.signDocument(new byte[]{2});
+            Assert.assertEquals(1, reads.get());
+
+            listener.get().onRotation(CertificateSelector.DEFAULT, bundle.getFingerprint());
+            orchestrator.signDocument(new byte[]{3});
+            Assert.assertEquals(1, reads.get());
+
+            listener.get().onRotation(CertificateSelector.DEFAULT, TestCertificates.rsa("rotated").bundle().getFingerprint());
+            orchestrator.signDocument(new byte[]{4});
+            Assert.assertEquals(2, reads.get());
+        }
+    }
+
+    private static DocumentSigningOrchestrator orchestrator(RedisCertificateCache cache) {
+        return new DocumentSigningOrchestrator(cache,
+                new DigiCertApiClient("http://127.0.0.1:9", "unused", 1, 1),
+                new CertificateArchiveService(),
+                new CertificateBasedSigner());
+    }
+
+    private static class FakeCache extends RedisCertificateCache {
+
+        FakeCache() {
+            super("127.0.0.1", 6379, "lease-test", 3600);
+        }
+
+        @Override
+        public long getRefreshLeaseMillis() {
+            return 2_000;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.CertificateBundleCodec;
+import com.example.docsigning.cache.RefreshLease;
+import com.example.docsigning.cache.ResilientCertificateCache;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.digicert.DigiCertHttpTransport;
+import com.example.docsigning.digicert.HttpEndpointPolicy;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.resilience.CircuitBreaker;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ResilientCertificateCacheTest {
+
+    @Test
+    public void shouldServeLastKnownBundleAndStopCallingRedisOnceCircuitOpens() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("redis-down").bundle();
+        FlakyRedis redis = new FlakyRedis(bundle);
+        try (ResilientCertificateCache cache = resilient(redis)) {
+            Assert.assertNotNull(cache.getWithExpiry(CertificateSelector.DEFAULT));
+
+            redis.down = true;
+            for (int i = 0; i < 10; i++) {
+                CachedCertificate fallback = cache.getWithExpiry(CertificateSelector.DEFAULT);
+                Assert.assertSame(bundle, fallback.getBundle());
+                Assert.assertTrue(fallback.isValidAt(System.currentTimeMillis()));
+            }
+
+            Assert.assertEquals(CircuitBreaker.State.OPEN, cache.getState());
+            Assert.assertEquals(1 + 3, redis.calls.get());
+            Assert.assertEquals(Long.valueOf(0), SigningMetrics.shared().snapshot().get("cache.redis.healthy"));
+        }
+    }
+
+    @Test
+    public void shouldNotWaitForRedisWrites() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("slow-write").bundle();
+        FlakyRedis redis = new FlakyRedis(null);
+        redis.writeGate = new CountDownLatch(1);
+        try (ResilientCertificateCache cache = resilient(redis)) {
+            long start = System.nanoTime();
+            CachedCertificate stored = cache.put(CertificateSelector.DEFAULT, bundle);
+            cache.putSignature("id", new byte[]{1}, 60);
+
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+            Assert.assertSame(bundle, stored.getBundle());
+            Assert.assertNull(redis.getWithExpiry(CertificateSelector.DEFAULT));
+
+            redis.writeGate.countDown();
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (redis.getSignature("id") == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertNotNull(redis.getWithExpiry(CertificateSelector.DEFAULT));
+            Assert.assertNotNull(redis.getSignature("id"));
+        }
+    }
+
+    @Test
+    public void shouldFallBackToBundleAsStoredInRedis() throws Exception {
+        CertificateBundleCodec codec = new CertificateBundleCodec(true, false);
+        CertificateBundle bundle = TestCertificates.rsa("normalized").bundle();
+        AtomicReference<CachedCertificate> written = new AtomicReference<>();
+        FlakyRedis redis = new FlakyRedis(null) {
+            @Override
+            public CachedCertificate put(CertificateSelector selector, CertificateBundle bundle) {
+                CachedCertificate stored = super.put(selector, normalize(bundle));
+                written.set(stored);
+                return stored;
+            }
+
+            @Override
+            public CertificateBundle normalize(CertificateBundle bundle) {
+                return codec.normalize(bundle);
+            }
+        };
+        try (ResilientCertificateCache cache = resilient(redis)) {
+            CachedCertificate provisional = cache.put(CertificateSelector.DEFAULT, bundle);
+            Assert.assertEquals(codec.normalize(bundle).getFingerprint(), provisional.getBundle().getFingerprint());
+
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (written.get() == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            redis.down = true;
+            CachedCertificate fallback = cache.getWithExpiry(CertificateSelector.DEFAULT);
+            while (written.get() != null && fallback.getBundle() != written.get().getBundle()
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                fallback = cache.getWithExpiry(CertificateSelector.DEFAULT);
+            }
+
+            Assert.assertNotNull(written.get());
+            Assert.assertSame(written.get().getBundle(), fallback.getBundle());
+        }
+    }
+
+    @Test
+    public void shouldGrantLocalLeaseWhileRedisIsDown() throws Exception {
+        FlakyRedis redis = new FlakyRedis(null);
+        redis.down = true;
+        try (ResilientCertificateCache cache = resilient(redis)) {
+            RefreshLease lease = cache.tryAcquireRefreshLease(CertificateSelector.DEFAULT);
+            Assert.assertNotNull(lease);
+
+            CachedCertificate stored = cache.put(TestCertificates.rsa("local-lease").bundle(), lease);
+            cache.releaseRefreshLease(lease);
+
+            Assert.assertNotNull(stored);
+            Assert.assertNull(cache.getSignature("missing"));
+        }
+    }
+
+    @Test
+    public void shouldKeepSigningWhenRedisDiesAfterTheLocalCopyExpired() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("degraded");
+        try (FakeDigiCertServer digicert = new FakeDigiCertServer(certificates, 3);
+             FlakyRedis redis = new FlakyRedis(1);
+             ResilientCertificateCache cache = resilient(redis);
+             DocumentSigningOrchestrator orchestrator = new DocumentSigningOrchestrator(cache, client(digicert),
+                     new CertificateArchiveService(), new CertificateBasedSigner())) {
+            orchestrator.signDocument(new byte[]{1});
+            Assert.assertEquals(1, digicert.getDownloadRequests());
+
+            redis.down = true;
+            Thread.sleep(1_100);
+            for (int i = 0; i < 20; i++) {
+                Assert.assertNotNull(orchestrator.signDocument(new byte[]{2}).getSignature());
+            }
+
+            Assert.assertEquals(1, digicert.getDownloadRequests());
+        }
+    }
+
+    private static ResilientCertificateCache resilient(FlakyRedis redis) {
+        return new ResilientCertificateCache(redis, new CircuitBreaker("redis-test", 3, 60_000L), 5_000L, 16);
+    }
+
+    private static DigiCertApiClient client(FakeDigiCertServer digicert) {
+        return new DigiCertApiClient(
+                digicert.getBaseUrl(),
+                new StaticApiKeyProvider("test"),
+                new DigiCertHttpTransport(new CircuitBreaker("digicert-test", 5, 5_000L), 10L, 100L),
+                new HttpEndpointPolicy(1_000, 5_000, 2),
+                new HttpEndpointPolicy(1_000, 5_000, 2),
+                100);
+    }
+
+    /**
+     * Shared cache that throws while {@link #down} is set and holds writes until {@link #writeGate} opens.
+     */
+    private static class FlakyRedis extends InMemoryCertificateCache {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile boolean down;
+        volatile CountDownLatch writeGate;
+
+        FlakyRedis(CertificateBundle bundle) {
+            super(3600, 5_000L);
+            if (bundle != null) {
+                super.put(CertificateSelector.DEFAULT, bundle);
+            }
+        }
+
+        FlakyRedis(int ttlSeconds) {
+            super(ttlSeconds, 5_000L);
+        }
+
+        @Override
+        public CachedCertificate getWithExpiry(CertificateSelector selector) {
+            check();
+            return super.getWithExpiry(selector);
+        }
+
+        @Override
+        public CachedCertificate put(CertificateSelector selector, CertificateBundle bundle) {
+            awaitGate();
+            check();
+            return super.put(selector, bundle);
+        }
+
+        @Override
+        public CachedCertificate put(CertificateBundle bundle, RefreshLease lease) {
+            awaitGate();
+            check();
+            return super.put(bundle, lease);
+        }
+
+        @Override
+        public RefreshLease tryAcquireRefreshLease(CertificateSelector selector) {
+            check();
+            return super.tryAcquireRefreshLease(selector);
+        }
+
+        @Override
+        public void putSignature(String id, byte[] signature, int ttlSeconds) {
+            awaitGate();
+            check();
+            super.putSignature(id, signature, ttlSeconds);
+        }
+
+        private void check() {
+            calls.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("Read timed out");
+            }
+        }
+
+        private void awaitGate() {
+            CountDownLatch gate = writeGate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.KeyMaterialCache;
+import com.example.docsigning.cache.RedisCertificateCache;
+import com.example.docsigning.cache.SignatureCache;
+import com.example.docsigning.crypto.SigningEngines;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SignatureCacheTest {
+
+    private static final byte[] DOCUMENT = "<report period=\"2024-Q1\"/>".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void shouldServeResubmittedDocumentFromCache() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("resubmit").bundle();
+        SignatureCache cache = new SignatureCache(16);
+        CertificateBasedSigner signer = signer(cache);
+
+        SignedDocument first = signer.sign(DOCUMENT, bundle);
+        byte[] marker = {42};
+        cache.put(bundle.getFingerprint(), sha256(DOCUMENT), marker);
+
+        Assert.assertArrayEquals(marker, signer.sign(DOCUMENT, bundle).getSignature());
+        Assert.assertArrayEquals(marker, signer.signDigest(sha256(DOCUMENT), bundle).getSignature());
+        Assert.assertNotNull(first.getSignature());
+    }
+
+    @Test
+    public void shouldCacheSameBytesAsUncachedSigning() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("cached-bytes");
+        CertificateBundle bundle = certificates.bundle();
+
+        byte[] uncached = new CertificateBasedSigner().sign(DOCUMENT, bundle).getSignature();
+        SignatureCache cache = new SignatureCache(16);
+        byte[] signed = signer(cache).sign(DOCUMENT, bundle).getSignature();
+
+        Assert.assertArrayEquals(uncached, signed);
+        Assert.assertArrayEquals(uncached, cache.get(bundle.getFingerprint(), sha256(DOCUMENT)));
+    }
+
+    @Test
+    public void shouldNotCacheRandomizedSignatures() throws Exception {
+        TestCertificates certificates = TestCertificates.ec("randomized");
+        CertificateBundle bundle = certificates.bundle();
+        SignatureCache cache = new SignatureCache(16);
+        cache.put(bundle.getFingerprint(), sha256(DOCUMENT), new byte[]{42});
+
+        SignedDocument signed = signer(cache).sign(DOCUMENT, bundle);
+
+        Signature verifier = Signature.getInstance("SHA256withECDSA");
+        verifier.initVerify(certificates.getCertificate());
+        verifier.update(DOCUMENT);
+        Assert.assertTrue(verifier.verify(signed.getSignature()));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        SignatureCache cache = new SignatureCache(2);
+        cache.put("fp", new byte[]{1}, new byte[]{1});
+        cache.put("fp", new byte[]{2}, new byte[]{2});
+        cache.get("fp", new byte[]{1});
+        cache.put("fp", new byte[]{3}, new byte[]{3});
+
+        Assert.assertNotNull(cache.get("fp", new byte[]{1}));
+        Assert.assertNull(cache.get("fp", new byte[]{2}));
+        Assert.assertNotNull(cache.get("fp", new byte[]{3}));
+    }
+
+    @Test
+    public void shouldShareSignaturesBetweenNodesThroughRedis() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("shared").bundle();
+        FakeRedis redis = new FakeRedis();
+
+        byte[] signedOnFirstNode = signer(new SignatureCache(16, redis, 600)).sign(DOCUMENT, bundle).getSignature();
+        SignatureCache secondNode = new SignatureCache(16, redis, 600);
+
+        Assert.assertEquals(1, redis.signatures.size());
+        Assert.assertArrayEquals(signedOnFirstNode, secondNode.get(bundle.getFingerprint(), sha256(DOCUMENT)));
+    }
+
+    @Test
+    public void shouldTreatRedisFailureAsMiss() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("redis-down").bundle();
+        RedisCertificateCache unavailable = new FakeRedis() {
+            @Override
+            public byte[] getSignature(String id) {
+                throw new IllegalStateException("connection refused");
+            }
+
+            @Override
+            public void putSignature(String id, byte[] signature, int ttlSeconds) {
+                throw new IllegalStateException("connection refused");
+            }
+        };
+
+        SignedDocument signed = signer(new SignatureCache(0, unavailable, 600)).sign(DOCUMENT, bundle);
+
+        Assert.assertEquals(SigningEngines.RSA, signed.getSignatureType());
+        Assert.assertNotNull(signed.getSignature());
+    }
+
+    @Test
+    public void shouldDropLocalEntriesOnRotation() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("rotated").bundle();
+        SignatureCache cache = new SignatureCache(16);
+        CertificateBasedSigner signer = signer(cache);
+        signer.sign(DOCUMENT, bundle);
+
+        signer.invalidateKeyMaterial();
+
+        Assert.assertNull(cache.get(bundle.getFingerprint(), sha256(DOCUMENT)));
+    }
+
+    @Test
+    public void shouldNotCacheWarmUpSignatures() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("warm-up").bundle();
+        FakeRedis redis = new FakeRedis();
+        AtomicInteger lookups = new AtomicInteger();
+        SignatureCache cache = new SignatureCache(16, redis, 600) {
+            @Override
+            public byte[] get(String fingerprint, byte[] sha256Digest) {
+                lookups.incrementAndGet();
+                return super.get(fingerprint, sha256Digest);
+            }
+        };
+
+        try (InMemoryCertificateCache certificates = new InMemoryCertificateCache(bundle, 3600);
+             DocumentSigningOrchestrator orchestrator = new DocumentSigningOrchestrator(certificates, null,
+                     new CertificateArchiveService(), signer(cache))) {
+            ApplicationBootstrap bootstrap = new ApplicationBootstrap(new StaticApiKeyProvider("test"), certificates,
+                    orchestrator, 0, 20);
+            bootstrap.run();
+
+            Assert.assertTrue(bootstrap.isReady());
+        }
+        Assert.assertEquals(0, lookups.get());
+        Assert.assertTrue(redis.signatures.isEmpty());
+    }
+
+    private static CertificateBasedSigner signer(SignatureCache cache) {
+        return new CertificateBasedSigner(new KeyMaterialCache(), new SigningEngines(), cache);
+    }
+
+    private static byte[] sha256(byte[] document) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(document);
+    }
+
+    private static class FakeRedis extends RedisCertificateCache {
+
+        final Map<String, byte[]> signatures = new ConcurrentHashMap<>();
+
+        FakeRedis() {
+            super("127.0.0.1", 6379, "signature-test", 3600);
+        }
+
+        @Override
+        public byte[] getSignature(String id) {
+            return signatures.get(id);
+        }
+
+        @Override
+        public void putSignature(String id, byte[] signature, int ttlSeconds) {
+            signatures.put(id, signature);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.KeyMaterialCache;
+import com.example.docsigning.crypto.SigningEngine;
+import com.example.docsigning.crypto.SigningEngines;
+import com.example.docsigning.model.DetachedSignedDocument;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Signature;
+
+public class SigningEngineTest {
+
+    private static final byte[] DOCUMENT = "<invoice id=\"7\"/>".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void shouldPickEngineFromCertificateKeyType() throws Exception {
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+
+        assertSignsAndVerifies(signer, TestCertificates.rsa("rsa-engine"), SigningEngines.RSA);
+        assertSignsAndVerifies(signer, TestCertificates.ec("ec-engine"), SigningEngines.ECDSA_P256);
+    }
+
+    @Test
+    public void shouldSignEd25519KeysWhereTheJvmSupportsIt() throws Exception {
+        Assume.assumeTrue(SigningEngines.isAvailable(SigningEngines.ED25519, null));
+
+        assertSignsAndVerifies(new CertificateBasedSigner(), TestCertificates.ed25519("ed-engine"), SigningEngines.ED25519);
+    }
+
+    @Test
+    public void shouldSignRsaKeysWithPssWhenConfigured() throws Exception {
+        CertificateBasedSigner signer = new CertificateBasedSigner(new KeyMaterialCache(),
+                new SigningEngines(null, SigningEngines.RSA_PSS));
+
+        assertSignsAndVerifies(signer, TestCertificates.rsa("pss-engine"), SigningEngines.RSA_PSS);
+    }
+
+    @Test
+    public void shouldSignEcdsaDigestVerifiableAgainstDocument() throws Exception {
+        TestCertificates certificates = TestCertificates.ec("ec-digest");
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(DOCUMENT);
+
+        DetachedSignedDocument prehashed = new CertificateBasedSigner().signDigest(digest, certificates.bundle());
+
+        Assert.assertEquals(SigningEngines.ECDSA_P256, prehashed.getSignatureType());
+        Signature verifier = Signature.getInstance("SHA256withECDSA");
+        verifier.initVerify(certificates.getCertificate());
+        verifier.update(DOCUMENT);
+        Assert.assertTrue(verifier.verify(prehashed.getSignature()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDigestSigningWithEd25519() throws Exception {
+        Assume.assumeTrue(SigningEngines.isAvailable(SigningEngines.ED25519, null));
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(DOCUMENT);
+        new CertificateBasedSigner().signDigest(digest, TestCertificates.ed25519("ed-digest").bundle());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownProvider() {
+        new SigningEngines("NoSuchProvider", SigningEngines.RSA);
+    }
+
+    private static void assertSignsAndVerifies(CertificateBasedSigner signer, TestCertificates certificates,
+                                               String expectedType) throws Exception {
+        // Twice, so the second signature comes from the thread's already initialized instance.
+        signer.sign(DOCUMENT, certificates.bundle());
+        SignedDocument signed = signer.sign(DOCUMENT, certificates.bundle());
+
+        Assert.assertEquals(expectedType, signed.getSignatureType());
+        SigningEngine engine = signer.getEngines().byName(signed.getSignatureType());
+        Signature verifier = engine.verifier(certificates.getCertificate().getPublicKey());
+        verifier.update(DOCUMENT);
+        Assert.assertTrue(verifier.verify(signed.getSignature()));
+    }
+}
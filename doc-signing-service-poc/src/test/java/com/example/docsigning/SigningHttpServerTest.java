@@ -0,0 +1,237 @@
+package com.example.docsigning;
+
+import com.example.docsigning.cache.RedisCertificateCache;
+import com.example.docsigning.digicert.DigiCertApiClient;
+import com.example.docsigning.http.SigningHttpServer;
+import com.example.docsigning.metrics.SigningMetrics;
+import com.example.docsigning.model.CachedCertificate;
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.CertificateSelector;
+import com.example.docsigning.model.DetachedSignedDocument;
+import com.example.docsigning.model.DigiCertCertificateSummary;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateArchiveService;
+import com.example.docsigning.service.CertificateBasedSigner;
+import com.example.docsigning.service.DocumentSigningOrchestrator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SigningHttpServerTest {
+
+    private final AtomicBoolean ready = new AtomicBoolean(true);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean blockSigning = new AtomicBoolean();
+    private final AtomicBoolean failSigning = new AtomicBoolean();
+    private final AtomicReference<CertificateSelector> lastSelector = new AtomicReference<>();
+    private final Set<CertificateSelector> cacheReads = ConcurrentHashMap.newKeySet();
+    private CountDownLatch signingStarted = new CountDownLatch(1);
+    private DocumentSigningOrchestrator orchestrator;
+    private SigningHttpServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        CertificateBundle bundle = TestCertificates.rsa("http-test").bundle();
+        RedisCertificateCache cache = new RedisCertificateCache("127.0.0.1", 6379, "http-test", 3600) {
+            @Override
+            public CachedCertificate getWithExpiry(CertificateSelector selector) {
+                cacheReads.add(selector);
+                return new CachedCertificate(bundle, System.currentTimeMillis() + 3_600_000L);
+            }
+        };
+        DigiCertApiClient digicert = new DigiCertApiClient("http://127.0.0.1:9", "unused", 1, 1) {
+            @Override
+            public void forEachCertificate(CertificateVisitor visitor) throws IOException {
+                visitor.visit(summary(1, "FR", "Acme SAS"));
+                visitor.visit(summary(2, "DE", "Acme GmbH"));
+            }
+        };
+        orchestrator = new DocumentSigningOrchestrator(cache,
+                digicert,
+                new CertificateArchiveService(),
+                new CertificateBasedSigner()) {
+            @Override
+            public SignedDocument signDocument(byte[] documentBytes, CertificateSelector selector) throws Exception {
+                lastSelector.set(selector);
+                if (failSigning.get()) {
+                    throw new IllegalArgumentException("Corrupt certificate bundle field 3 of length 9000");
+                }
+                if (blockSigning.get()) {
+                    signingStarted.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return super.signDocument(documentBytes, selector);
+            }
+
+            @Override
+            public DetachedSignedDocument signDigest(byte[] sha256Digest, CertificateSelector selector) throws Exception {
+                lastSelector.set(selector);
+                return super.signDigest(sha256Digest, selector);
+            }
+        };
+        server = new SigningHttpServer(orchestrator, ready::get, 0, 1, 1, 1024, 2);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        release.countDown();
+        server.close();
+        orchestrator.close();
+    }
+
+    @Test
+    public void shouldSignDocumentsAndReportHealth() throws Exception {
+        HttpURLConnection connection = post("/sign", new byte[]{1, 2, 3});
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("application/json", connection.getHeaderField("Content-Type"));
+
+        Assert.assertEquals(200, get("/health").getResponseCode());
+        Assert.assertEquals(200, get("/ready").getResponseCode());
+    }
+
+    @Test
+    public void shouldRejectBeforeReady() throws Exception {
+        ready.set(false);
+
+        HttpURLConnection connection = post("/sign", new byte[]{1});
+        Assert.assertEquals(503, connection.getResponseCode());
+        Assert.assertEquals("2", connection.getHeaderField("Retry-After"));
+        Assert.assertEquals(503, get("/ready").getResponseCode());
+    }
+
+    @Test
+    public void shouldRejectOversizedBodies() throws Exception {
+        Assert.assertEquals(413, post("/sign", new byte[2048]).getResponseCode());
+    }
+
+    @Test
+    public void shouldRejectBadDigests() throws Exception {
+        Assert.assertEquals(400, post("/sign-digest", new byte[5]).getResponseCode());
+    }
+
+    @Test
+    public void shouldSelectCertificateOnlyFromSelectionParameters() throws Exception {
+        Assert.assertEquals(200, post("/sign?trace=abc", new byte[]{1}).getResponseCode());
+        Assert.assertEquals(CertificateSelector.DEFAULT, lastSelector.get());
+
+        Assert.assertEquals(200, post("/sign?organization=Acme%20SAS", new byte[]{1}).getResponseCode());
+        Assert.assertEquals(CertificateSelector.of("FR", "Acme SAS", null), lastSelector.get());
+
+        Assert.assertEquals(200, post("/sign-digest?country=DE", new byte[32]).getResponseCode());
+        Assert.assertEquals(CertificateSelector.of("DE", null, null), lastSelector.get());
+
+        Assert.assertEquals(400, post("/sign?country=", new byte[]{1}).getResponseCode());
+    }
+
+    @Test
+    public void shouldAnswerNotFoundForSelectionWithoutCertificate() throws Exception {
+        CertificateSelector unknown = CertificateSelector.of("ZZ", null, null);
+
+        Assert.assertEquals(404, post("/sign?country=ZZ", new byte[]{1}).getResponseCode());
+        Assert.assertEquals(404, post("/sign?organization=Nobody", new byte[]{1}).getResponseCode());
+        Assert.assertFalse(cacheReads.contains(unknown));
+        Assert.assertFalse(cacheReads.contains(CertificateSelector.of("FR", "Nobody", null)));
+    }
+
+    @Test
+    public void shouldNotExposeInternalErrors() throws Exception {
+        failSigning.set(true);
+
+        HttpURLConnection connection = post("/sign", new byte[]{1});
+
+        Assert.assertEquals(500, connection.getResponseCode());
+        try (InputStream error = connection.getErrorStream()) {
+            Assert.assertEquals("Signing failed", new String(readAll(error), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void shouldShedLoadWhenQueueIsFull() throws Exception {
+        blockSigning.set(true);
+        signingStarted = new CountDownLatch(1);
+        Thread busy = new Thread(() -> exchangeQuietly("/sign"));
+        busy.start();
+        Assert.assertTrue(signingStarted.await(5, TimeUnit.SECONDS));
+        Thread queued = new Thread(() -> exchangeQuietly("/sign"));
+        queued.start();
+        waitForQueuedRequest();
+
+        HttpURLConnection rejected = post("/sign", new byte[]{1});
+        Assert.assertEquals(429, rejected.getResponseCode());
+        Assert.assertEquals("2", rejected.getHeaderField("Retry-After"));
+
+        release.countDown();
+        busy.join(5_000);
+        queued.join(5_000);
+    }
+
+    private void waitForQueuedRequest() throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline
+                && SigningMetrics.shared().snapshot().getOrDefault("http.queue_depth", 0L) < 1) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void exchangeQuietly(String path) {
+        try {
+            post(path, new byte[]{1}).getResponseCode();
+        } catch (Exception ignored) {
+            // only the rejected request's outcome matters
+        }
+    }
+
+    private HttpURLConnection post(String path, byte[] body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url(path)).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return connection;
+    }
+
+    private static DigiCertCertificateSummary summary(long id, String country, String organization) {
+        DigiCertCertificateSummary summary = new DigiCertCertificateSummary();
+        summary.setId(id);
+        summary.setCountry(country);
+        summary.setOrganization(organization);
+        summary.setStatus("issued");
+        return summary;
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private HttpURLConnection get(String path) throws Exception {
+        return (HttpURLConnection) new URL(url(path)).openConnection();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getPort() + path;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.docsigning;
+
+import com.example.docsigning.aws.ApiKeyProvider;
+
+/**
+ * SSM stand-in that always returns the same key.
+ */
+public final class StaticApiKeyProvider implements ApiKeyProvider {
+
+    private final String apiKey;
+
+    public StaticApiKeyProvider(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    @Override
+    public String getApiKey() {
+        return apiKey;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.docsigning;
+
+import com.example.docsigning.model.CertificateBundle;
+import com.example.docsigning.model.DetachedSignedDocument;
+import com.example.docsigning.model.SignedDocument;
+import com.example.docsigning.service.CertificateBasedSigner;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class StreamingSignerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldMatchInMemorySignatureForStreamAndFile() throws Exception {
+        TestCertificates certificates = TestCertificates.rsa("streaming-test");
+        CertificateBundle bundle = certificates.bundle();
+        byte[] document = new byte[300 * 1024 + 17];
+        new Random(42).nextBytes(document);
+        Path file = temporaryFolder.newFile("document.bin").toPath();
+        Files.write(file, document);
+
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+        SignedDocument inMemory = signer.sign(document, bundle);
+        DetachedSignedDocument fromStream = signer.sign(new ByteArrayInputStream(document), bundle);
+        DetachedSignedDocument fromFile = signer.sign(file, bundle);
+
+        Assert.assertArrayEquals(inMemory.getSignature(), fromStream.getSignature());
+        Assert.assertArrayEquals(inMemory.getSignature(), fromFile.getSignature());
+        Assert.assertEquals(document.length, fromStream.getDocumentLength());
+        Assert.assertEquals(document.length, fromFile.getDocumentLength());
+        Assert.assertNull(fromFile.getOriginalDocument());
+    }
+
+    @Test
+    public void shouldMatchCertificateBoundDigestWhenStreamed() throws Exception {
+        CertificateBundle bundle = new CertificateBundle(TestCertificates.rsa("crt-only").certificatePem(), null);
+        byte[] document = "certificate bound".getBytes("UTF-8");
+
+        CertificateBasedSigner signer = new CertificateBasedSigner();
+        SignedDocument inMemory = signer.sign(document, bundle);
+        DetachedSignedDocument streamed = signer.sign(new ByteArrayInputStream(document), bundle);
+
+        Assert.assertEquals("CERT_BOUND_SHA256_DIGEST", streamed.getSignatureType());
+        Assert.assertArrayEquals(inMemory.getSignature(), streamed.getSignature());
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.docsigning;
+
+import com.example.docsigning.model.CertificateBundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.text.SimpleDateFormat;
+import java.util.Base64;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates throw-away key pairs and self-signed X.509 v3 certificates for tests and benchmarks,
+ * using a minimal DER writer so no extra crypto library is needed.
+ */
+public final class TestCertificates {
+
+    private static final String OID_SHA256_WITH_RSA = "1.2.840.113549.1.1.11";
+    private static final String OID_ECDSA_WITH_SHA256 = "1.2.840.10045.4.3.2";
+    private static final String OID_ED25519 = "1.3.101.112";
+    private static final String OID_COMMON_NAME = "2.5.4.3";
+    private static final String OID_COUNTRY = "2.5.4.6";
+    private static final String OID_BASIC_CONSTRAINTS = "2.5.29.19";
+
+    private final String commonName;
+    private final KeyPair keyPair;
+    private final X509Certificate certificate;
+
+    private TestCertificates(String commonName, KeyPair keyPair, X509Certificate certificate) {
+        this.commonName = commonName;
+        this.keyPair = keyPair;
+        this.certificate = certificate;
+    }
+
+    public static TestCertificates rsa(String commonName) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return selfSigned(generator.generateKeyPair(), commonName, validFor(365));
+    }
+
+    public static TestCertificates ec(String commonName) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return selfSigned(generator.generateKeyPair(), commonName, validFor(365));
+    }
+
+    public static TestCertificates ed25519(String commonName) throws Exception {
+        return selfSigned(KeyPairGenerator.getInstance("Ed25519").generateKeyPair(), commonName, validFor(365));
+    }
+
+    public static TestCertificates rsaValidUntil(String commonName, Date notAfter) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return selfSigned(generator.generateKeyPair(), commonName,
+                new Date[]{new Date(notAfter.getTime() - TimeUnit.DAYS.toMillis(365)), notAfter});
+    }
+
+    /**
+     * RSA CA certificate signed by {@code issuer}, or a self-signed root when {@code issuer} is {@code null}.
+     */
+    public static TestCertificates rsaCa(String commonName, TestCertificates issuer) throws Exception {
+        return issued(rsaKeyPair(), commonName, issuer, true);
+    }
+
+    /**
+     * RSA end-entity certificate signed by {@code issuer}.
+     */
+    public static TestCertificates rsaIssuedBy(String commonName, TestCertificates issuer) throws Exception {
+        return issued(rsaKeyPair(), commonName, issuer, false);
+    }
+
+    public KeyPair getKeyPair() {
+        return keyPair;
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public byte[] certificatePem() throws Exception {
+        return pem("CERTIFICATE", certificate.getEncoded());
+    }
+
+    public byte[] privateKeyPem() {
+        return pem("PRIVATE KEY", keyPair.getPrivate().getEncoded());
+    }
+
+    public CertificateBundle bundle() throws Exception {
+        return new CertificateBundle(certificatePem(), privateKeyPem());
+    }
+
+    private static Date[] validFor(int days) {
+        long now = System.currentTimeMillis();
+        return new Date[]{new Date(now - TimeUnit.DAYS.toMillis(1)), new Date(now + TimeUnit.DAYS.toMillis(days))};
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static TestCertificates issued(KeyPair keyPair, String commonName, TestCertificates issuer, boolean ca)
+            throws Exception {
+        if (issuer == null) {
+            return certificate(keyPair, commonName, validFor(365), keyPair.getPrivate(), commonName, ca);
+        }
+        return certificate(keyPair, commonName, validFor(365), issuer.keyPair.getPrivate(), issuer.commonName, ca);
+    }
+
+    private static TestCertificates selfSigned(KeyPair keyPair, String commonName, Date[] validity) throws Exception {
+        return certificate(keyPair, commonName, validity, keyPair.getPrivate(), commonName, false);
+    }
+
+    private static TestCertificates certificate(KeyPair keyPair, String commonName, Date[] validity,
+                                                PrivateKey signingKey, String issuerCommonName, boolean ca)
+            throws Exception {
+        String keyAlgorithm = signingKey.getAlgorithm();
+        String jcaAlgorithm;
+        byte[] algorithmIdentifier;
+        if ("RSA".equals(keyAlgorithm)) {
+            jcaAlgorithm = "SHA256withRSA";
+            algorithmIdentifier = sequence(oid(OID_SHA256_WITH_RSA), new byte[]{0x05, 0x00});
+        } else if ("EC".equals(keyAlgorithm)) {
+            jcaAlgorithm = "SHA256withECDSA";
+            algorithmIdentifier = sequence(oid(OID_ECDSA_WITH_SHA256));
+        } else {
+            jcaAlgorithm = "Ed25519";
+            algorithmIdentifier = sequence(oid(OID_ED25519));
+        }
+
+        byte[] tbs = sequence(
+                tlv(0xa0, integer(BigInteger.valueOf(2))),
+                integer(BigInteger.valueOf(System.nanoTime()).abs()),
+                algorithmIdentifier,
+                name(issuerCommonName),
+                sequence(utcTime(validity[0]), utcTime(validity[1])),
+                name(commonName),
+                keyPair.getPublic().getEncoded(),
+                ca ? tlv(0xa3, sequence(sequence(oid(OID_BASIC_CONSTRAINTS), tlv(0x01, new byte[]{(byte) 0xff}),
+                        tlv(0x04, sequence(tlv(0x01, new byte[]{(byte) 0xff})))))) : new byte[0]);
+
+        Signature signature = Signature.getInstance(jcaAlgorithm);
+        signature.initSign(signingKey);
+        signature.update(tbs);
+        byte[] signatureBytes = signature.sign();
+
+        byte[] bitString = new byte[signatureBytes.length + 1];
+        System.arraycopy(signatureBytes, 0, bitString, 1, signatureBytes.length);
+        byte[] der = sequence(tbs, algorithmIdentifier, tlv(0x03, bitString));
+
+        X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(der));
+        return new TestCertificates(commonName, keyPair, certificate);
+    }
+
+    private static byte[] name(String commonName) {
+        return sequence(
+                set(sequence(oid(OID_COUNTRY), tlv(0x13, "FR".getBytes(StandardCharsets.US_ASCII)))),
+                set(sequence(oid(OID_COMMON_NAME), tlv(0x0c, commonName.getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    private static byte[] pem(String type, byte[] der) {
+        String body = Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der);
+        return ("-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] sequence(byte[]... parts) {
+        return tlv(0x30, concat(parts));
+    }
+
+    private static byte[] set(byte[]... parts) {
+        return tlv(0x31, concat(parts));
+    }
+
+    private static byte[] integer(BigInteger value) {
+        return tlv(0x02, value.toByteArray());
+    }
+
+    private static byte[] utcTime(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyMMddHHmmss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return tlv(0x17, format.format(date).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] oid(String dotted) {
+        String[] arcs = dotted.split("\\.");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Integer.parseInt(arcs[0]) * 40 + Integer.parseInt(arcs[1]));
+        for (int i = 2; i < arcs.length; i++) {
+            long arc = Long.parseLong(arcs[i]);
+            int shift = 63 - Long.numberOfLeadingZeros(arc | 1);
+            for (int group = shift / 7; group > 0; group--) {
+                out.write((int) (0x80 | ((arc >> (group * 7)) & 0x7f)));
+            }
+            out.write((int) (arc & 0x7f));
+        }
+        return tlv(0x06, out.toByteArray());
+    }
+
+    private static byte[] tlv(int tag, byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + 6);
+        out.write(tag);
+        int length = content.length;
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            int bytes = (32 - Integer.numberOfLeadingZeros(length) + 7) / 8;
+            out.write(0x80 | bytes);
+            for (int i = bytes - 1; i >= 0; i--) {
+                out.write((length >> (i * 8)) & 0xff);
+            }
+        }
+        out.write(content, 0, content.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}